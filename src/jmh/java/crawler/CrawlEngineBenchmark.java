@@ -0,0 +1,71 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+import okhttp3.mockwebserver.MockWebServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crawls a local {@link SyntheticSite} with artificial latency, comparing the fixed 20-thread pool
+ * against the virtual-thread executor capped by the in-flight semaphore, and both against the
+ * non-blocking {@link HttpClientHtmlFetcher} driven by only four worker threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CrawlEngineBenchmark {
+
+    @Param({"FIXED_POOL", "VIRTUAL_THREADS"})
+    public CrawlerConfig.ExecutorMode executorMode;
+
+    @Param({"50"})
+    public long latencyMillis;
+
+    @Param({"20"})
+    public int fanOut;
+
+    private MockWebServer server;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new SyntheticSite(fanOut, latencyMillis));
+        server.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public List<CrawledPage> crawlSlowSite() {
+        WebCrawler crawler = new WebCrawler(createConfig(), new PageProcessor(new JsoupHtmlFetcher(5000)));
+        return crawler.crawl();
+    }
+
+    @Benchmark
+    public List<CrawledPage> crawlSlowSiteAsync() {
+        CrawlerConfig config = createConfig();
+        config.setThreadPoolSize(4);
+        config.setAsyncFetch(true);
+        WebCrawler crawler = new WebCrawler(config,
+                new PageProcessor(new HttpClientHtmlFetcher(5000, CrawlerConfig.ParserMode.DOM)));
+        return crawler.crawl();
+    }
+
+    private CrawlerConfig createConfig() {
+        CrawlerConfig config = new CrawlerConfig(List.of(server.url("/").url()), 2, Set.of("http://" + server.getHostName()));
+        config.setExecutorMode(executorMode);
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxConnectionsPerHost(config.getMaxInFlightRequests());
+        return config;
+    }
+}
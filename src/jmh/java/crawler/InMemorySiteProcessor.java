@@ -0,0 +1,60 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates pages of a tree-shaped site in memory instead of fetching them, so benchmarks measure the
+ * crawler's own bookkeeping. Pages are {@code <base>/} and {@code <base>/p/<id>}, every page links to
+ * the root, {@code fanOut} children (down to {@code siteDepth} levels below the root) and
+ * {@code relatedLinks} pseudo-random pages from anywhere in the site, like a "related articles" box.
+ */
+public class InMemorySiteProcessor extends PageProcessor {
+
+    private final String baseUrl;
+    private final int fanOut;
+    private final int siteDepth;
+    private final int relatedLinks;
+
+    public InMemorySiteProcessor(String baseUrl, int fanOut, int siteDepth, int relatedLinks) {
+        super(url -> null);
+        this.baseUrl = baseUrl;
+        this.fanOut = fanOut;
+        this.siteDepth = siteDepth;
+        this.relatedLinks = relatedLinks;
+    }
+
+    @Override
+    public CrawledPage processPage(String url, int depth) {
+        String id = url.length() <= baseUrl.length() + 1 ? "" : url.substring(url.lastIndexOf('/') + 1);
+        List<String> links = new ArrayList<>(fanOut + relatedLinks + 1);
+        links.add(baseUrl + "/");
+
+        int level = id.isEmpty() ? 0 : id.split("-").length;
+        for (int i = 0; i < fanOut && level < siteDepth; i++) {
+            links.add(pageUrl(id.isEmpty() ? String.valueOf(i) : id + "-" + i));
+        }
+
+        SplittableRandom random = new SplittableRandom(id.hashCode());
+        for (int i = 0; i < relatedLinks; i++) {
+            links.add(pageUrl(randomId(random)));
+        }
+        return new CrawledPage(url, depth, List.of("Page " + id), links, false);
+    }
+
+    public String pageUrl(String id) {
+        return baseUrl + "/p/" + id;
+    }
+
+    private String randomId(SplittableRandom random) {
+        int levels = 1 + random.nextInt(siteDepth);
+        StringBuilder id = new StringBuilder().append(random.nextInt(fanOut));
+        for (int i = 1; i < levels; i++) {
+            id.append('-').append(random.nextInt(fanOut));
+        }
+        return id.toString();
+    }
+}
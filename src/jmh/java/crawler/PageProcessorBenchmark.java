@@ -0,0 +1,97 @@
+package crawler;
+
+import crawler.model.PageContent;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heading and link extraction on a pre-parsed document, parsing itself, and the streaming extractor that
+ * replaces both. SMALL is a typical article (~40 KB), LARGE and HUGE are index or archive pages of ~1 MB
+ * and ~5 MB. The select-based extraction that the single traversal replaced is kept here as the baseline.
+ * Run with {@code -prof gc} to compare allocation between the DOM and streaming paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageProcessorBenchmark {
+
+    private static final String BASE_URI = "https://www.example.com/";
+
+    @Param({"SMALL", "LARGE", "HUGE"})
+    public String pageSize;
+
+    private String html;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        html = switch (pageSize) {
+            case "HUGE" -> SyntheticCorpus.htmlPage(20_000, 2_000, 5, 7);
+            case "LARGE" -> SyntheticCorpus.htmlPage(5_000, 400, 5, 7);
+            default -> SyntheticCorpus.htmlPage(200, 20, 3, 7);
+        };
+        document = Jsoup.parse(html, BASE_URI);
+    }
+
+    @Benchmark
+    public PageContent extractContent() {
+        return DomContentExtractor.extract(document);
+    }
+
+    @Benchmark
+    public void legacySelectExtraction(Blackhole blackhole) {
+        blackhole.consume(legacyExtractHeadings(document));
+        blackhole.consume(legacyExtractLinks(document));
+    }
+
+    @Benchmark
+    public Document parse() {
+        return Jsoup.parse(html, BASE_URI);
+    }
+
+    @Benchmark
+    public PageContent parseAndExtract() {
+        return DomContentExtractor.extract(Jsoup.parse(html, BASE_URI));
+    }
+
+    @Benchmark
+    public PageContent streamingExtract() throws IOException {
+        return StreamingContentExtractor.extract(new StringReader(html), BASE_URI);
+    }
+
+    private static List<String> legacyExtractHeadings(Document document) {
+        List<String> headings = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            for (Element header : document.select("h" + i)) {
+                String text = header.text().trim();
+                if (!text.isEmpty()) {
+                    headings.add(text);
+                }
+            }
+        }
+        return headings;
+    }
+
+    private static List<String> legacyExtractLinks(Document document) {
+        List<String> links = new ArrayList<>();
+        for (Element anchor : document.select("a[href]")) {
+            String href = anchor.attr("abs:href").trim().toLowerCase();
+            if (!href.isEmpty()) {
+                links.add(href);
+            }
+        }
+        return links;
+    }
+}
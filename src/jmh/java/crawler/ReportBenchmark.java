@@ -0,0 +1,59 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report generation over a synthetic crawl result: link deduplication per page and the full
+ * {@link MarkdownWriter#write} including broken-link lookups and file output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportBenchmark {
+
+    private static final int LINKS_PER_PAGE = 60;
+
+    @Param({"1000", "20000"})
+    public int pageCount;
+
+    private List<CrawledPage> pages;
+    private List<URL> startUrls;
+    private Path report;
+
+    @Setup
+    public void setUp() throws IOException {
+        URL root = new URL("https://www.example.com/");
+        startUrls = List.of(root);
+        pages = SyntheticCorpus.crawledPages(pageCount, LINKS_PER_PAGE, root, 11);
+        report = Files.createTempFile("report-benchmark", ".md");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(report);
+    }
+
+    @Benchmark
+    public void extractUniqueLinks(Blackhole blackhole) {
+        for (CrawledPage page : pages) {
+            blackhole.consume(MarkdownUtils.extractUniqueLinks(page));
+        }
+    }
+
+    @Benchmark
+    public void writeReport() throws IOException {
+        new MarkdownWriter().write(pages, report.toString(), startUrls);
+    }
+}
@@ -0,0 +1,48 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crawls a ~48k-page in-memory site from 5 overlapping start URLs, so most link visits are revisits
+ * that only attribute an existing page to another start URL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class StartUrlAttributionBenchmark {
+
+    private static final String BASE_URL = "https://bench.example";
+    private static final int FAN_OUT = 36;
+    private static final int DEPTH = 3;
+
+    private InMemorySiteProcessor processor;
+    private List<URL> startUrls;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        processor = new InMemorySiteProcessor(BASE_URL, FAN_OUT, DEPTH, 8);
+        startUrls = new ArrayList<>();
+        startUrls.add(new URL(BASE_URL + "/"));
+        for (int i = 0; i < 4; i++) {
+            startUrls.add(new URL(processor.pageUrl(String.valueOf(i))));
+        }
+    }
+
+    @Benchmark
+    public List<CrawledPage> crawlOverlappingStartUrls() {
+        CrawlerConfig config = new CrawlerConfig(startUrls, DEPTH, Set.of(BASE_URL));
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxConnectionsPerHost(config.getThreadPoolSize());
+        return new WebCrawler(config, processor).crawl();
+    }
+}
@@ -0,0 +1,104 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generators for realistic-looking benchmark inputs.
+ */
+public class SyntheticCorpus {
+
+    private static final String[] HOSTS = {"www.example.com", "shop.example.com", "blog.example.org", "cdn.example.net"};
+    private static final String[] SEGMENTS = {"news", "products", "category", "2024", "article", "about", "team",
+            "contact", "help", "faq", "blog", "tags", "search", "docs", "api", "v2"};
+
+    /**
+     * Absolute links as jsoup returns them: mixed schemes, ports, trailing slashes, queries and fragments.
+     */
+    public static List<String> links(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> links = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder link = new StringBuilder(random.nextInt(10) == 0 ? "http://" : "https://");
+            link.append(HOSTS[random.nextInt(HOSTS.length)]);
+            if (random.nextInt(20) == 0) link.append(":8080");
+            int segments = 1 + random.nextInt(4);
+            for (int s = 0; s < segments; s++) {
+                link.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            }
+            link.append('/').append(random.nextInt(10_000));
+            if (random.nextInt(3) == 0) link.append('/');
+            if (random.nextInt(4) == 0) link.append("?page=").append(random.nextInt(50)).append("&utm_source=newsletter");
+            if (random.nextInt(5) == 0) link.append("#section-").append(random.nextInt(10));
+            links.add(link.toString());
+        }
+        return links;
+    }
+
+    /**
+     * A content page with a navigation block, article sections with headings and paragraphs, inline links
+     * and a footer, roughly the shape of a CMS-generated page.
+     */
+    public static String htmlPage(int links, int headings, int paragraphsPerHeading, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> targets = links(links, seed);
+        StringBuilder html = new StringBuilder(links * 120 + headings * paragraphsPerHeading * 400);
+        html.append("<!DOCTYPE html><html><head><title>Synthetic page</title>")
+                .append("<script>window.dataLayer = [];</script><style>body{margin:0}</style></head><body>");
+
+        int link = 0;
+        int navigationLinks = Math.min(links / 4, 40);
+        html.append("<header><nav><ul>");
+        for (; link < navigationLinks; link++) {
+            html.append("<li><a class=\"nav\" href=\"").append(targets.get(link)).append("\">Menu ").append(link).append("</a></li>");
+        }
+        html.append("</ul></nav></header><main>");
+
+        for (int h = 0; h < headings; h++) {
+            int level = 1 + random.nextInt(6);
+            html.append("<section><h").append(level).append('>').append(SEGMENTS[random.nextInt(SEGMENTS.length)])
+                    .append(" heading ").append(h).append("</h").append(level).append('>');
+            for (int p = 0; p < paragraphsPerHeading; p++) {
+                html.append("<p>Lorem ipsum dolor sit amet, <strong>consectetur</strong> adipiscing elit, sed do eiusmod ")
+                        .append("tempor incididunt ut labore et dolore magna aliqua. ");
+                if (link < links) {
+                    html.append("<a href=\"").append(targets.get(link++)).append("\">read more</a> ");
+                }
+                html.append("Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris.</p>");
+            }
+            html.append("</section>");
+        }
+
+        html.append("</main><footer><ul>");
+        for (; link < links; link++) {
+            html.append("<li><a href=\"").append(targets.get(link)).append("\">Footer ").append(link).append("</a></li>");
+        }
+        return html.append("</ul></footer></body></html>").toString();
+    }
+
+    /**
+     * Crawl results as the report receives them: a tree under one start URL, a few broken pages and
+     * links that mostly point at other pages of the same crawl.
+     */
+    public static List<CrawledPage> crawledPages(int count, int linksPerPage, URL root, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String base = root.toExternalForm().replaceAll("/$", "");
+        List<CrawledPage> pages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> links = new ArrayList<>(linksPerPage);
+            for (int l = 0; l < linksPerPage; l++) {
+                links.add(base + "/page/" + random.nextInt(count) + (random.nextInt(3) == 0 ? "/" : ""));
+            }
+            List<String> headings = List.of("Page " + i, "Section " + random.nextInt(100));
+            int depth = i == 0 ? 0 : 1 + Math.min(3, Integer.numberOfTrailingZeros(i + 1));
+            CrawledPage page = new CrawledPage(base + "/page/" + i, depth, headings, links, random.nextInt(50) == 0);
+            page.getFromStartUrls().add(root);
+            pages.add(page);
+        }
+        return pages;
+    }
+}
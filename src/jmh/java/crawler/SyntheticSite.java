@@ -0,0 +1,46 @@
+package crawler;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves a generated tree-shaped site to MockWebServer: every page at {@code /} or {@code /p/<id>}
+ * links to {@code fanOut} child pages, so a crawl to depth d visits 1 + fanOut + ... + fanOut^d pages.
+ * Each response can be delayed to simulate a slow remote host.
+ */
+public class SyntheticSite extends Dispatcher {
+
+    private final int fanOut;
+    private final long latencyMillis;
+
+    public SyntheticSite(int fanOut, long latencyMillis) {
+        this.fanOut = fanOut;
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        String path = request.getPath() == null ? "/" : request.getPath();
+        String id = path.equals("/") ? "" : path.substring(path.lastIndexOf('/') + 1);
+
+        MockResponse response = new MockResponse()
+                .setHeader("Content-Type", "text/html; charset=utf-8")
+                .setBody(renderPage(id));
+        if (latencyMillis > 0) {
+            response.setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private String renderPage(String id) {
+        StringBuilder html = new StringBuilder("<html><body><h1>Page ").append(id).append("</h1>");
+        for (int i = 0; i < fanOut; i++) {
+            String child = id.isEmpty() ? String.valueOf(i) : id + "-" + i;
+            html.append("<a href=\"/p/").append(child).append("\">Child ").append(child).append("</a>");
+        }
+        return html.append("</body></html>").toString();
+    }
+}
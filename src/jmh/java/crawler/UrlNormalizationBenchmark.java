@@ -0,0 +1,111 @@
+package crawler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link UrlCanonicalizer} with the java.net.URL and regex based normalizers it replaced,
+ * which are kept here verbatim as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlNormalizationBenchmark {
+
+    private static final int LINK_COUNT = 1024;
+
+    private List<String> links;
+
+    @Setup
+    public void setUp() {
+        links = SyntheticCorpus.links(LINK_COUNT, 42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void canonicalizer(Blackhole blackhole) {
+        for (String link : links) {
+            blackhole.consume(UrlCanonicalizer.DEFAULT.canonicalize(link));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void canonicalizerHost(Blackhole blackhole) {
+        for (String link : links) {
+            blackhole.consume(UrlCanonicalizer.extractHost(link));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void crawlerNormalizeUrl(Blackhole blackhole) {
+        for (String link : links) {
+            blackhole.consume(WebCrawlerUtils.normalizeUrl(link));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void reportNormalizeUrl(Blackhole blackhole) {
+        for (String link : links) {
+            blackhole.consume(MarkdownUtils.normalizeUrl(link));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void legacyCrawlerNormalizeUrl(Blackhole blackhole) {
+        for (String link : links) {
+            blackhole.consume(legacyCrawlerNormalizeUrl(link));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void legacyCrawlerHost(Blackhole blackhole) {
+        for (String link : links) {
+            blackhole.consume(legacyHost(link));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void legacyReportNormalizeUrl(Blackhole blackhole) {
+        for (String link : links) {
+            blackhole.consume(legacyReportNormalizeUrl(link));
+        }
+    }
+
+    private static String legacyCrawlerNormalizeUrl(String urlString) {
+        try {
+            URL url = new URL(urlString);
+            String path = url.getPath().replaceAll("/$", "");
+            return url.getProtocol() + "://" + url.getHost() + path;
+        } catch (MalformedURLException e) {
+            return "";
+        }
+    }
+
+    private static String legacyHost(String urlString) {
+        try {
+            return new URL(urlString).getHost();
+        } catch (MalformedURLException e) {
+            return "";
+        }
+    }
+
+    private static String legacyReportNormalizeUrl(String url) {
+        if (url == null) return "";
+        int hashIndex = url.indexOf('#');
+        return hashIndex >= 0 ? url.substring(0, hashIndex).replaceAll("/$", "") : url.replaceAll("/$", "");
+    }
+}
@@ -0,0 +1,16 @@
+package crawler;
+
+import crawler.model.PageContent;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncHtmlFetcher {
+    /**
+     * Starts fetching a page without blocking the calling thread.
+     *
+     * @param url The URL to fetch.
+     * @return Future of the page's headings and absolute, lowercased links in document order; completes
+     * exceptionally if fetching or parsing fails.
+     */
+    CompletableFuture<PageContent> fetchContentAsync(String url);
+}
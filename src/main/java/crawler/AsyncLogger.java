@@ -0,0 +1,118 @@
+package crawler;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leveled logger that keeps console output off the crawl workers: a call below the configured level returns
+ * without formatting anything, every other call only queues the format and its arguments. A daemon thread
+ * formats the messages and prints them, WARN and ERROR to the error stream.
+ */
+public class AsyncLogger {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final CrawlerConfig.LogLevel level;
+    private final BlockingQueue<Message> messages = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    public AsyncLogger(CrawlerConfig.LogLevel level) {
+        this(System.out, System.err, level);
+    }
+
+    public AsyncLogger(PrintStream out, PrintStream err, CrawlerConfig.LogLevel level) {
+        this.out = out;
+        this.err = err;
+        this.level = level;
+        this.writerThread = new Thread(this::writeMessages, "crawl-logger");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public boolean isEnabled(CrawlerConfig.LogLevel messageLevel) {
+        return messageLevel.compareTo(level) >= 0;
+    }
+
+    public void debug(String format, Object... args) {
+        log(CrawlerConfig.LogLevel.DEBUG, format, args);
+    }
+
+    public void info(String format, Object... args) {
+        log(CrawlerConfig.LogLevel.INFO, format, args);
+    }
+
+    public void warn(String format, Object... args) {
+        log(CrawlerConfig.LogLevel.WARN, format, args);
+    }
+
+    public void error(String format, Object... args) {
+        log(CrawlerConfig.LogLevel.ERROR, format, args);
+    }
+
+    public void log(CrawlerConfig.LogLevel messageLevel, String format, Object... args) {
+        if (!isEnabled(messageLevel) || closed) return;
+        messages.add(new Message(messageLevel, format, args));
+    }
+
+    /**
+     * Prints everything logged so far and stops the writer thread, later messages are dropped.
+     */
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeMessages() {
+        List<Message> batch = new ArrayList<>();
+        try {
+            while (!closed || !messages.isEmpty()) {
+                Message first = messages.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                messages.drainTo(batch);
+                for (Message message : batch) {
+                    print(message);
+                }
+                batch.clear();
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void print(Message message) {
+        String text = message.args.length == 0 ? message.format : String.format(message.format, message.args);
+        if (message.level == CrawlerConfig.LogLevel.INFO) {
+            out.println(text);
+        } else if (message.level == CrawlerConfig.LogLevel.DEBUG) {
+            out.println("[debug] " + text);
+        } else {
+            err.println("[" + message.level.name().toLowerCase(Locale.ROOT) + "] " + text);
+        }
+    }
+
+    private static class Message {
+        private final CrawlerConfig.LogLevel level;
+        private final String format;
+        private final Object[] args;
+
+        private Message(CrawlerConfig.LogLevel level, String format, Object[] args) {
+            this.level = level;
+            this.format = format;
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package crawler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Puts a {@link BloomFilter} in front of another visited set. Most lookups for unseen URLs are answered
+ * by the filter alone, positives are always confirmed by the wrapped set so false positives never
+ * cause a page to be skipped.
+ */
+public class BloomFilteredVisitedSet implements VisitedSet {
+
+    private final VisitedSet delegate;
+    private final BloomFilter filter;
+    private final LongAdder lookupsSaved = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public BloomFilteredVisitedSet(VisitedSet delegate, BloomFilter filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean add(String normalizedUrl) {
+        if (!delegate.add(normalizedUrl)) return false;
+        filter.put(normalizedUrl);
+        return true;
+    }
+
+    @Override
+    public boolean contains(String normalizedUrl) {
+        if (!filter.mightContain(normalizedUrl)) {
+            lookupsSaved.increment();
+            return false;
+        }
+        if (delegate.contains(normalizedUrl)) return true;
+        falsePositives.increment();
+        return false;
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return delegate.memoryFootprintBytes() + filter.getBitCount() / 8;
+    }
+
+    /**
+     * Number of lookups the Bloom filter answered without touching the wrapped set.
+     */
+    public long getLookupsSaved() {
+        return lookupsSaved.sum();
+    }
+
+    /**
+     * Number of lookups where the Bloom filter claimed a hit that the wrapped set did not confirm.
+     */
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+}
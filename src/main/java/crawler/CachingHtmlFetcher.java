@@ -0,0 +1,83 @@
+package crawler;
+
+import crawler.model.FetchResult;
+import crawler.model.PageContent;
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revalidates pages against a {@link PageCache}: cached validators are sent with the request and on a
+ * 304 the cached headings and links are reused, so unchanged pages are neither downloaded nor parsed.
+ * Pages whose responses carry no ETag or Last-Modified cannot be revalidated and are not cached.
+ */
+public class CachingHtmlFetcher implements HtmlFetcher {
+
+    private final HtmlFetcher delegate;
+    private final PageCache cache;
+    private final UrlCanonicalizer canonicalizer;
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder downloaded = new LongAdder();
+
+    public CachingHtmlFetcher(HtmlFetcher delegate, PageCache cache) {
+        this(delegate, cache, UrlCanonicalizer.DEFAULT);
+    }
+
+    /**
+     * @param canonicalizer Builds the cache keys, pages whose URLs share a canonical form share an entry.
+     */
+    public CachingHtmlFetcher(HtmlFetcher delegate, PageCache cache, UrlCanonicalizer canonicalizer) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    public Document fetchDocumentFromUrl(String url) throws Exception {
+        return delegate.fetchDocumentFromUrl(url);
+    }
+
+    @Override
+    public PageContent fetchContentFromUrl(String url) throws Exception {
+        String key = canonicalizer.canonicalize(url);
+        PageCache.Entry cached = cache.get(key);
+        FetchResult result = cached == null
+                ? delegate.fetchContentIfModified(url, null, null)
+                : delegate.fetchContentIfModified(url, cached.getEtag(), cached.getLastModified());
+
+        if (result.isNotModified()) {
+            if (cached == null) {
+                throw new IOException("Not modified response to an unconditional request for " + url);
+            }
+            notModified.increment();
+            return new PageContent(new ArrayList<>(cached.getHeadings()), new ArrayList<>(cached.getLinks()));
+        }
+
+        downloaded.increment();
+        PageContent content = result.getContent();
+        if (result.getEtag() != null || result.getLastModified() != null) {
+            cache.put(key, new PageCache.Entry(key, result.getEtag(), result.getLastModified(),
+                    content.getHeadings(), content.getLinks()));
+        } else if (cached != null) {
+            cache.remove(key);
+        }
+        return content;
+    }
+
+    public HtmlFetcher getDelegate() {
+        return delegate;
+    }
+
+    public PageCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d pages not modified, %d downloaded, %d cached (%.1f MB), %d evicted, %d failed writes or deletes",
+                notModified.sum(), downloaded.sum(), cache.size(), cache.getTotalBytes() / 1e6, cache.getEvictions(),
+                cache.getFailures());
+    }
+}
@@ -0,0 +1,202 @@
+package crawler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which query parameters are part of a page's identity. By default every parameter is kept except
+ * tracking parameters such as {@code utm_*} and {@code sessionid}; a rule per domain can instead keep only some
+ * parameters, strip further ones or drop the query altogether. Domains are hosts or {@code *.suffix} entries as
+ * in {@link DomainMatcher}.
+ * <p>
+ * Everything is compiled into hash sets and prefix arrays up front. Links without a query never get here, and
+ * without domain rules the host is not even looked at.
+ */
+public class CanonicalizationRules {
+
+    public static final List<String> DEFAULT_STRIPPED_PARAMS = List.of("utm_*", "sessionid");
+    public static final CanonicalizationRules DEFAULT = new CanonicalizationRules(DEFAULT_STRIPPED_PARAMS, List.of());
+
+    private static final String WILDCARD_PREFIX = "*.";
+    private static final String DROP_QUERY = "drop-query";
+    private static final String KEEP = "keep=";
+    private static final String STRIP = "strip=";
+
+    private final List<String> strippedParams;
+    private final List<String> domainRules;
+    private final QueryFilter defaultFilter;
+    private final Map<String, QueryFilter> hostFilters = new HashMap<>();
+    private final Map<String, QueryFilter> domainSuffixFilters = new HashMap<>();
+
+    /**
+     * @param strippedParams Parameters removed on every host, compared case-insensitively; a trailing {@code *}
+     *                       matches every parameter starting with the rest.
+     * @param domainRules    Rules of the form {@code <domain>:drop-query}, {@code <domain>:keep=<p1,p2>} or
+     *                       {@code <domain>:strip=<p1,p2>}, at most one per domain.
+     */
+    public CanonicalizationRules(List<String> strippedParams, List<String> domainRules) throws IllegalArgumentException {
+        this.strippedParams = List.copyOf(strippedParams);
+        this.domainRules = List.copyOf(domainRules);
+        this.defaultFilter = QueryFilter.stripping(strippedParams);
+        for (String rule : domainRules) {
+            addDomainRule(rule);
+        }
+    }
+
+    private void addDomainRule(String rule) throws IllegalArgumentException {
+        int separator = rule.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("URL rule '" + rule + "' must look like <domain>:<action>.");
+        }
+        String domain = rule.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+        String action = rule.substring(separator + 1).trim();
+
+        QueryFilter filter;
+        if (action.equals(DROP_QUERY)) {
+            filter = QueryFilter.DROP;
+        } else if (action.startsWith(KEEP)) {
+            filter = QueryFilter.keeping(splitParams(action.substring(KEEP.length())));
+        } else if (action.startsWith(STRIP)) {
+            List<String> stripped = new ArrayList<>(strippedParams);
+            stripped.addAll(splitParams(action.substring(STRIP.length())));
+            filter = QueryFilter.stripping(stripped);
+        } else {
+            throw new IllegalArgumentException("URL rule '" + rule + "' must end in drop-query, keep=<params> or strip=<params>.");
+        }
+
+        Map<String, QueryFilter> filters = domain.startsWith(WILDCARD_PREFIX) ? domainSuffixFilters : hostFilters;
+        String key = domain.startsWith(WILDCARD_PREFIX) ? domain.substring(WILDCARD_PREFIX.length()) : domain;
+        if (filters.putIfAbsent(key, filter) != null) {
+            throw new IllegalArgumentException("More than one URL rule for domain " + domain + ".");
+        }
+    }
+
+    private static List<String> splitParams(String params) {
+        List<String> names = new ArrayList<>();
+        for (String name : params.split(",")) {
+            if (!name.isBlank()) names.add(name.trim());
+        }
+        return names;
+    }
+
+    /**
+     * Appends {@code ?} and the parameters of the query that are kept, sorted, or nothing if none are.
+     */
+    protected void appendQuery(StringBuilder canonical, UrlCanonicalizer.Parts parts) {
+        QueryFilter filter = filterFor(parts);
+        if (filter.dropQuery) return;
+
+        String source = parts.source;
+        int queryEnd = parts.queryEnd;
+        int separator = source.indexOf('&', parts.queryStart);
+        if (separator < 0 || separator >= queryEnd) {
+            // A single parameter needs no sorting
+            if (filter.keeps(source, parts.queryStart, queryEnd)) {
+                canonical.append('?').append(source, parts.queryStart, queryEnd);
+            }
+            return;
+        }
+
+        List<String> kept = new ArrayList<>();
+        for (int start = parts.queryStart; start <= queryEnd; ) {
+            int end = source.indexOf('&', start);
+            if (end < 0 || end > queryEnd) end = queryEnd;
+            if (end > start && filter.keeps(source, start, end)) {
+                kept.add(source.substring(start, end));
+            }
+            start = end + 1;
+        }
+        if (kept.isEmpty()) return;
+
+        Collections.sort(kept);
+        canonical.append('?').append(kept.get(0));
+        for (int i = 1; i < kept.size(); i++) {
+            canonical.append('&').append(kept.get(i));
+        }
+    }
+
+    private QueryFilter filterFor(UrlCanonicalizer.Parts parts) {
+        if (hostFilters.isEmpty() && domainSuffixFilters.isEmpty()) return defaultFilter;
+
+        String host = parts.host();
+        QueryFilter filter = hostFilters.get(host);
+        if (filter != null || domainSuffixFilters.isEmpty()) return filter != null ? filter : defaultFilter;
+
+        filter = domainSuffixFilters.get(host);
+        for (int dot = host.indexOf('.'); filter == null && dot >= 0; dot = host.indexOf('.', dot + 1)) {
+            filter = domainSuffixFilters.get(host.substring(dot + 1));
+        }
+        return filter != null ? filter : defaultFilter;
+    }
+
+    /**
+     * The settings these rules were built from, e.g. to tell whether a saved crawl used the same canonical form.
+     */
+    @Override
+    public String toString() {
+        return "strip=" + strippedParams + " rules=" + domainRules;
+    }
+
+    private static final class QueryFilter {
+        private static final QueryFilter DROP = new QueryFilter(true, null, Set.of(), new String[0]);
+
+        private final boolean dropQuery;
+        private final Set<String> keptParams;
+        private final Set<String> strippedParams;
+        private final String[] strippedPrefixes;
+
+        private QueryFilter(boolean dropQuery, Set<String> keptParams, Set<String> strippedParams, String[] strippedPrefixes) {
+            this.dropQuery = dropQuery;
+            this.keptParams = keptParams;
+            this.strippedParams = strippedParams;
+            this.strippedPrefixes = strippedPrefixes;
+        }
+
+        private static QueryFilter keeping(List<String> params) {
+            Set<String> kept = new HashSet<>();
+            for (String param : params) {
+                kept.add(param.toLowerCase(Locale.ROOT));
+            }
+            return new QueryFilter(false, kept, Set.of(), new String[0]);
+        }
+
+        private static QueryFilter stripping(List<String> params) {
+            Set<String> stripped = new HashSet<>();
+            List<String> prefixes = new ArrayList<>();
+            for (String param : params) {
+                String name = param.trim().toLowerCase(Locale.ROOT);
+                if (name.endsWith("*")) {
+                    prefixes.add(name.substring(0, name.length() - 1));
+                } else if (!name.isEmpty()) {
+                    stripped.add(name);
+                }
+            }
+            return new QueryFilter(false, null, stripped, prefixes.toArray(new String[0]));
+        }
+
+        /**
+         * @param start Offset of a {@code name=value} or bare {@code name} parameter in the source.
+         */
+        private boolean keeps(String source, int start, int end) {
+            int nameEnd = source.indexOf('=', start);
+            if (nameEnd < 0 || nameEnd > end) nameEnd = end;
+
+            for (String prefix : strippedPrefixes) {
+                if (nameEnd - start >= prefix.length() && source.regionMatches(true, start, prefix, 0, prefix.length())) {
+                    return false;
+                }
+            }
+            if (strippedParams.isEmpty() && keptParams == null) return true;
+
+            String name = source.substring(start, nameEnd).toLowerCase(Locale.ROOT);
+            if (keptParams != null) return keptParams.contains(name);
+            return !strippedParams.contains(name);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+import crawler.model.CrawledPage;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only log of a running crawl: every enqueued task and every finished page, so a crawl that dies can be
+ * resumed. Workers only serialize a record and queue it; a background thread appends the records and forces them
+ * to disk once per checkpoint interval, so a crash loses at most the last interval.
+ * <p>
+ * Each record is a type byte, a length and the payload, which lets {@link #recover} stop at a record that was
+ * cut off by the crash.
+ * <p>
+ * If writing fails, or the records waiting for a slow disk exceed their memory bound, checkpointing is turned
+ * off: waiting records are dropped, later ones are not queued, and the file keeps the prefix written so far,
+ * which resumes like a crash at that point.
+ */
+public class CheckpointLog implements Closeable {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final byte TASK_RECORD = 1;
+    private static final byte PAGE_RECORD = 2;
+    private static final long DEFAULT_MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+    private final List<URL> startUrls;
+    private final long intervalMillis;
+    private final long maxPendingBytes;
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final BlockingQueue<byte[]> pendingRecords = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private volatile AsyncLogger logger;
+    private long checkpoints;
+
+    private CheckpointLog(Path file, CrawlerConfig config, long intervalMillis, long maxPendingBytes, long validLength)
+            throws IOException {
+        this.startUrls = config.getStartUrls();
+        this.intervalMillis = intervalMillis;
+        this.maxPendingBytes = maxPendingBytes;
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        if (validLength == 0) {
+            out.writeInt(FORMAT_VERSION);
+            CrawledPageCodec.writeStrings(out, CrawlGraphStore.describe(config));
+            out.flush();
+        }
+
+        this.writerThread = new Thread(this::writeRecords, "checkpoint-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Starts a new log, replacing whatever was in the file.
+     */
+    protected static CheckpointLog create(Path file, CrawlerConfig config, long intervalMillis) throws IOException {
+        return create(file, config, intervalMillis, DEFAULT_MAX_PENDING_BYTES);
+    }
+
+    /**
+     * @param maxPendingBytes Bytes of records that may wait for the disk before checkpointing is turned off.
+     */
+    protected static CheckpointLog create(Path file, CrawlerConfig config, long intervalMillis, long maxPendingBytes)
+            throws IOException {
+        return new CheckpointLog(file, config, intervalMillis, maxPendingBytes, 0);
+    }
+
+    /**
+     * Continues a recovered log. A record cut off by the crash is dropped first.
+     */
+    protected static CheckpointLog append(Path file, CrawlerConfig config, Recovered recovered, long intervalMillis)
+            throws IOException {
+        return new CheckpointLog(file, config, intervalMillis, DEFAULT_MAX_PENDING_BYTES, recovered.validLength);
+    }
+
+    /**
+     * @return What the log recorded, or null if there is no log or it was written with different settings.
+     */
+    protected static Recovered recover(Path file, CrawlerConfig config) throws IOException {
+        if (!Files.exists(file)) return null;
+
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)));
+             DataInputStream in = new DataInputStream(counter)) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            if (!CrawlGraphStore.describe(config).equals(CrawledPageCodec.readStrings(in))) return null;
+
+            long fileSize = Files.size(file);
+            Recovered recovered = new Recovered();
+            recovered.validLength = counter.getCount();
+            while (true) {
+                byte[] payload;
+                int type;
+                try {
+                    type = in.readUnsignedByte();
+                    int length = in.readInt();
+                    // Whatever follows the last complete record is the tail of an interrupted write
+                    if (type != TASK_RECORD && type != PAGE_RECORD || length < 0 || length > fileSize - counter.getCount()) break;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                if (type == TASK_RECORD) {
+                    String url = CrawledPageCodec.readString(record);
+                    int depth = record.readInt();
+                    recovered.tasks.add(new CrawlTask(url, depth, config.getStartUrls().get(record.readUnsignedShort())));
+                } else {
+                    recovered.pages.add(CrawledPageCodec.read(record));
+                }
+                recovered.validLength = counter.getCount();
+            }
+            return recovered;
+        }
+    }
+
+    protected void taskEnqueued(CrawlTask task) {
+        int root = WebCrawlerUtils.indexOfStartUrl(startUrls, task.getRootStartUrl());
+        appendRecord(TASK_RECORD, out -> {
+            CrawledPageCodec.writeString(out, task.getUrl());
+            out.writeInt(task.getDepth());
+            out.writeShort(root);
+        });
+    }
+
+    protected void pageFinished(CrawledPage page) {
+        appendRecord(PAGE_RECORD, out -> CrawledPageCodec.write(out, page));
+    }
+
+    /**
+     * Logs a failure that turns checkpointing off as soon as it happens, instead of only at {@link #close()}.
+     */
+    protected void setLogger(AsyncLogger logger) {
+        this.logger = logger;
+        IOException failed = failure;
+        if (failed != null) {
+            logger.error("%s", failed.getMessage());
+        }
+    }
+
+    private void appendRecord(byte type, RecordWriter payload) {
+        if (failure != null) return;
+
+        // Serialized on the caller's thread, the page may lose its headings and links to the spill right after
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream record = new DataOutputStream(bytes)) {
+            record.writeByte(type);
+            record.writeInt(0);
+            payload.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] framed = bytes.toByteArray();
+        int length = framed.length - 5;
+        framed[1] = (byte) (length >>> 24);
+        framed[2] = (byte) (length >>> 16);
+        framed[3] = (byte) (length >>> 8);
+        framed[4] = (byte) length;
+        if (pendingBytes.addAndGet(framed.length) > maxPendingBytes) {
+            fail(new IOException("Checkpoint writing fell more than " + maxPendingBytes / (1024 * 1024)
+                    + " MB behind, checkpointing is off from here on"));
+            return;
+        }
+        pendingRecords.add(framed);
+    }
+
+    private synchronized void fail(IOException e) {
+        if (failure != null) return;
+        failure = e;
+        pendingRecords.clear();
+        AsyncLogger current = logger;
+        if (current != null) {
+            current.error("%s", e.getMessage());
+        }
+    }
+
+    private void writeRecords() {
+        List<byte[]> batch = new ArrayList<>();
+        long nextCheckpoint = System.currentTimeMillis() + intervalMillis;
+        try {
+            while ((!closed || !pendingRecords.isEmpty()) && failure == null) {
+                byte[] record = pendingRecords.poll(Math.max(nextCheckpoint - System.currentTimeMillis(), 1),
+                        TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    batch.add(record);
+                    pendingRecords.drainTo(batch);
+                    for (byte[] next : batch) {
+                        out.write(next);
+                        pendingBytes.addAndGet(-next.length);
+                    }
+                    batch.clear();
+                }
+                if (System.currentTimeMillis() >= nextCheckpoint) {
+                    checkpoint();
+                    nextCheckpoint = System.currentTimeMillis() + intervalMillis;
+                }
+            }
+            if (failure == null) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            // The crawl itself goes on without the log
+            fail(new IOException("Checkpoint writing failed, the crawl can not be resumed: " + e.getMessage(), e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        out.flush();
+        channel.force(false);
+        checkpoints++;
+    }
+
+    /**
+     * Writes the remaining records and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Number of times the log was forced to disk, read after {@link #close()}.
+     */
+    public long getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Pages and tasks recorded by an earlier run. Tasks include the ones whose pages finished, re-running them
+     * only records their start URLs again.
+     */
+    public static class Recovered {
+        private final List<CrawlTask> tasks = new ArrayList<>();
+        private final List<CrawledPage> pages = new ArrayList<>();
+        private long validLength;
+
+        public List<CrawlTask> getTasks() {
+            return tasks;
+        }
+
+        public List<CrawledPage> getPages() {
+            return pages;
+        }
+    }
+
+    private interface RecordWriter {
+        void write(DataOutput out) throws IOException;
+    }
+}
@@ -0,0 +1,68 @@
+package crawler;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often requests got an already open connection instead of paying for a new TCP (and TLS) handshake.
+ */
+public class ConnectionMetrics extends EventListener {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder connectionsAcquired = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder tlsHandshakes = new LongAdder();
+
+    @Override
+    public void callStart(Call call) {
+        requests.increment();
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectionsOpened.increment();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsHandshakes.increment();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        connectionsAcquired.increment();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    public long getTlsHandshakes() {
+        return tlsHandshakes.sum();
+    }
+
+    /**
+     * Share of connection acquisitions served by a pooled connection, 0 when nothing was fetched yet.
+     */
+    public double getReuseRatio() {
+        long acquired = connectionsAcquired.sum();
+        if (acquired == 0) return 0;
+        return Math.max(0, acquired - connectionsOpened.sum()) / (double) acquired;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d requests, %d connections opened, %d TLS handshakes, reuse ratio %.2f",
+                getRequests(), getConnectionsOpened(), getTlsHandshakes(), getReuseRatio());
+    }
+}
@@ -0,0 +1,136 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the content fingerprints of crawled pages and finds the page a new one duplicates.
+ * Exact copies are found by their content hash. Near duplicates are pages whose SimHash differs in at most
+ * {@code maxDistance} bits: the SimHash is cut into {@code maxDistance + 1} blocks, two hashes that close agree
+ * on at least one whole block, so only pages sharing a block with the new one are compared.
+ * <p>
+ * The SimHash leaves out the links every page of a site repeats, such as its navigation, see {@link #fingerprint}.
+ */
+public class ContentFingerprintIndex {
+
+    private final boolean nearDuplicates;
+    private final int maxDistance;
+    private final int[] blockShifts;
+    private final long[] blockMasks;
+    private final Map<Long, String> exact = new HashMap<>();
+    private final Map<String, long[]> navigationByHost = new HashMap<>();
+    private final List<Map<Long, List<Fingerprint>>> blocks = new ArrayList<>();
+
+    /**
+     * @param nearDuplicates Whether pages with a close SimHash count as duplicates, or only exact copies.
+     * @param maxDistance    Number of SimHash bits near duplicates may differ in.
+     */
+    public ContentFingerprintIndex(boolean nearDuplicates, int maxDistance) throws IllegalArgumentException {
+        if (maxDistance < 0 || maxDistance >= 64) {
+            throw new IllegalArgumentException("SimHash distance must be between 0 and 63.");
+        }
+        this.nearDuplicates = nearDuplicates;
+        this.maxDistance = maxDistance;
+
+        int blockCount = nearDuplicates ? maxDistance + 1 : 0;
+        this.blockShifts = new int[blockCount];
+        this.blockMasks = new long[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            int shift = i * 64 / blockCount;
+            int width = (i + 1) * 64 / blockCount - shift;
+            blockShifts[i] = shift;
+            blockMasks[i] = width == 64 ? -1L : (1L << width) - 1;
+            blocks.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Sets the content hash of a page over all its headings and links, and its SimHash over the headings and only
+     * the links that are not on the first page fingerprinted for the same host. That page is usually the start URL
+     * or the page the crawl entered the host through and shows the site's navigation. Left in, the navigation
+     * would outweigh the few links that tell sibling pages apart and make them near duplicates of each other.
+     *
+     * @param host            Host of the page, pages are compared to the navigation of their own host.
+     * @param normalizedLinks The page's links in canonical form.
+     */
+    public synchronized void fingerprint(CrawledPage page, String host, List<String> normalizedLinks) {
+        page.setContentHash(FingerprintUtils.contentHash(page.getHeadings(), normalizedLinks));
+
+        long[] navigation = navigationByHost.get(host);
+        if (navigation == null) {
+            if (!normalizedLinks.isEmpty()) navigationByHost.put(host, sortedHashes(normalizedLinks));
+            // The first page is all navigation, only its headings are its own
+            page.setSimHash(FingerprintUtils.simHash(page.getHeadings(), List.of()));
+            return;
+        }
+        List<String> ownLinks = new ArrayList<>();
+        for (String link : normalizedLinks) {
+            if (Arrays.binarySearch(navigation, FingerprintUtils.hash64(link)) < 0) ownLinks.add(link);
+        }
+        page.setSimHash(FingerprintUtils.simHash(page.getHeadings(), ownLinks));
+    }
+
+    /**
+     * Looks the page up and adds it as an original if nothing matches.
+     *
+     * @param contentHash See {@link FingerprintUtils#contentHash}, pages without content (0) are never duplicates.
+     * @return The URL of the original page with the same or nearly the same content, or null if the page is new.
+     */
+    public synchronized String findOrAdd(String url, long contentHash, long simHash) {
+        if (contentHash == 0) return null;
+
+        String original = exact.get(contentHash);
+        if (original != null) return original;
+
+        original = nearDuplicates ? findNear(simHash) : null;
+        // Later exact copies of a near duplicate point straight at the original
+        exact.put(contentHash, original != null ? original : url);
+        if (original != null) return original;
+
+        Fingerprint fingerprint = new Fingerprint(simHash, url);
+        for (int i = 0; i < blockShifts.length; i++) {
+            blocks.get(i).computeIfAbsent(block(simHash, i), key -> new ArrayList<>(1)).add(fingerprint);
+        }
+        return null;
+    }
+
+    private String findNear(long simHash) {
+        for (int i = 0; i < blockShifts.length; i++) {
+            List<Fingerprint> candidates = blocks.get(i).get(block(simHash, i));
+            if (candidates == null) continue;
+
+            for (Fingerprint candidate : candidates) {
+                if (Long.bitCount(candidate.simHash ^ simHash) <= maxDistance) return candidate.url;
+            }
+        }
+        return null;
+    }
+
+    private static long[] sortedHashes(List<String> links) {
+        long[] hashes = new long[links.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = FingerprintUtils.hash64(links.get(i));
+        }
+        Arrays.sort(hashes);
+        return hashes;
+    }
+
+    private long block(long simHash, int index) {
+        return (simHash >>> blockShifts[index]) & blockMasks[index];
+    }
+
+    private static class Fingerprint {
+        private final long simHash;
+        private final String url;
+
+        private Fingerprint(long simHash, String url) {
+            this.simHash = simHash;
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Saves the pages of a crawl, links included, so the next run can crawl incrementally from them.
+ * The file starts with the settings that shape the crawl graph; a graph saved under different start URLs,
+ * depth, domains or URL rules is not reused.
+ */
+public class CrawlGraphStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    protected static void save(Path file, CrawlerConfig config, List<CrawledPage> pages) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FORMAT_VERSION);
+            CrawledPageCodec.writeStrings(out, describe(config));
+            out.writeInt(pages.size());
+            for (CrawledPage page : pages) {
+                CrawledPageCodec.write(out, page);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return The saved pages, or null if there is no saved graph or it was saved with different settings.
+     */
+    protected static List<CrawledPage> load(Path file, CrawlerConfig config) throws IOException {
+        if (!Files.exists(file)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported crawl graph version " + version);
+            }
+            if (!describe(config).equals(CrawledPageCodec.readStrings(in))) return null;
+
+            int size = in.readInt();
+            List<CrawledPage> pages = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                pages.add(CrawledPageCodec.read(in));
+            }
+            return pages;
+        }
+    }
+
+    protected static List<String> describe(CrawlerConfig config) {
+        List<String> settings = new ArrayList<>();
+        settings.add("maxDepth=" + config.getMaxDepth());
+        for (URL startUrl : config.getStartUrls()) {
+            settings.add("start=" + startUrl.toExternalForm());
+        }
+        for (String domain : new TreeSet<>(config.getAllowedDomains())) {
+            settings.add("domain=" + domain);
+        }
+        // Pages are keyed by their canonical URL, other rules would key them differently
+        settings.add("canonical=" + config.getCanonicalizationRules());
+        return settings;
+    }
+}
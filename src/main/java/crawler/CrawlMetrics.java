@@ -0,0 +1,261 @@
+package crawler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and latency histograms of one crawl. Updated from every worker, so everything is a
+ * {@link LongAdder} or otherwise lock-free; reading them while the crawl runs gives a consistent enough picture
+ * for the periodic summary and the JSON snapshot.
+ */
+public class CrawlMetrics {
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder pagesFetched = new LongAdder();
+    private final LongAdder brokenPages = new LongAdder();
+    private final LongAdder bytesDownloaded = new LongAdder();
+    private final LongAdder linksDiscovered = new LongAdder();
+    private final LongAdder linksFiltered = new LongAdder();
+    private final LongAdder tasksEnqueued = new LongAdder();
+    private final LongAdder duplicateClaims = new LongAdder();
+    private final LongAdder knownLinks = new LongAdder();
+    private final LongAdder duplicateContentPages = new LongAdder();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final ConcurrentMap<String, LongAdder> fetchErrorsByHost = new ConcurrentHashMap<>();
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram parseTime = new LatencyHistogram();
+    private volatile LongSupplier queueDepth = () -> 0;
+
+    /**
+     * @param fetchNanos Time from sending the request until the content was extracted, parse time excluded.
+     */
+    public void recordPage(long fetchNanos, long parseNanos, long bytes) {
+        pagesFetched.increment();
+        fetchLatency.recordNanos(fetchNanos);
+        parseTime.recordNanos(parseNanos);
+        bytesDownloaded.add(bytes);
+    }
+
+    public void recordFetchError(String host, long fetchNanos) {
+        pagesFetched.increment();
+        brokenPages.increment();
+        fetchLatency.recordNanos(fetchNanos);
+        fetchErrorsByHost.computeIfAbsent(host, h -> new LongAdder()).increment();
+    }
+
+    public void recordLinksDiscovered(int links) {
+        linksDiscovered.add(links);
+    }
+
+    public void recordLinksFiltered(int links) {
+        linksFiltered.add(links);
+    }
+
+    public void recordTaskEnqueued() {
+        tasksEnqueued.increment();
+    }
+
+    /**
+     * A worker tried to claim a URL another worker had already claimed.
+     */
+    public void recordDuplicateClaim() {
+        duplicateClaims.increment();
+    }
+
+    /**
+     * A link pointed at an already visited page and was settled without a task.
+     */
+    public void recordKnownLink() {
+        knownLinks.increment();
+    }
+
+    /**
+     * A fetched page had the same or nearly the same content as an earlier one.
+     */
+    public void recordDuplicateContent() {
+        duplicateContentPages.increment();
+    }
+
+    public void workerStarted() {
+        activeWorkers.incrementAndGet();
+    }
+
+    public void workerFinished() {
+        activeWorkers.decrementAndGet();
+    }
+
+    public void setQueueDepth(LongSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public long getPagesFetched() {
+        return pagesFetched.sum();
+    }
+
+    public long getBrokenPages() {
+        return brokenPages.sum();
+    }
+
+    public long getBytesDownloaded() {
+        return bytesDownloaded.sum();
+    }
+
+    public long getLinksDiscovered() {
+        return linksDiscovered.sum();
+    }
+
+    public long getLinksFiltered() {
+        return linksFiltered.sum();
+    }
+
+    public long getTasksEnqueued() {
+        return tasksEnqueued.sum();
+    }
+
+    public long getDuplicateClaims() {
+        return duplicateClaims.sum();
+    }
+
+    /**
+     * Links and tasks that turned out to point at a page that was already visited.
+     */
+    public long getDedupHits() {
+        return duplicateClaims.sum() + knownLinks.sum();
+    }
+
+    public long getDuplicateContentPages() {
+        return duplicateContentPages.sum();
+    }
+
+    public int getActiveWorkers() {
+        return activeWorkers.get();
+    }
+
+    public long getQueueDepth() {
+        return queueDepth.getAsLong();
+    }
+
+    public Map<String, Long> getFetchErrorsByHost() {
+        Map<String, Long> errors = new TreeMap<>();
+        fetchErrorsByHost.forEach((host, count) -> errors.put(host, count.sum()));
+        return errors;
+    }
+
+    public LatencyHistogram getFetchLatency() {
+        return fetchLatency;
+    }
+
+    public LatencyHistogram getParseTime() {
+        return parseTime;
+    }
+
+    public double getPagesPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : pagesFetched.sum() / seconds;
+    }
+
+    /**
+     * One line for the periodic log output.
+     */
+    public String summaryLine() {
+        long errors = 0;
+        for (LongAdder hostErrors : fetchErrorsByHost.values()) {
+            errors += hostErrors.sum();
+        }
+        return String.format(Locale.ROOT, "pages=%d (%.1f/s) errors=%d queue=%d active=%d fetch p50=%.0fms p99=%.0fms "
+                        + "parse p50=%.1fms p99=%.1fms downloaded=%.1fMB dedup=%d",
+                pagesFetched.sum(), getPagesPerSecond(), errors, getQueueDepth(), activeWorkers.get(),
+                fetchLatency.getPercentileMillis(50), fetchLatency.getPercentileMillis(99),
+                parseTime.getPercentileMillis(50), parseTime.getPercentileMillis(99),
+                bytesDownloaded.sum() / 1e6, getDedupHits());
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\n");
+        appendField(json, "timestamp", quote(Instant.now().toString()));
+        appendField(json, "elapsedSeconds", number(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) / 1000.0));
+        appendField(json, "pagesFetched", pagesFetched.sum());
+        appendField(json, "brokenPages", brokenPages.sum());
+        appendField(json, "pagesPerSecond", number(getPagesPerSecond()));
+        appendField(json, "bytesDownloaded", bytesDownloaded.sum());
+        appendField(json, "queueDepth", getQueueDepth());
+        appendField(json, "activeWorkers", activeWorkers.get());
+        appendField(json, "linksDiscovered", linksDiscovered.sum());
+        appendField(json, "linksFiltered", linksFiltered.sum());
+        appendField(json, "tasksEnqueued", tasksEnqueued.sum());
+        appendField(json, "duplicateClaims", duplicateClaims.sum());
+        appendField(json, "dedupHits", getDedupHits());
+        appendField(json, "duplicateContentPages", duplicateContentPages.sum());
+        appendField(json, "fetchLatencyMillis", histogramJson(fetchLatency));
+        appendField(json, "parseTimeMillis", histogramJson(parseTime));
+
+        StringBuilder errors = new StringBuilder("{");
+        for (Map.Entry<String, Long> hostErrors : getFetchErrorsByHost().entrySet()) {
+            if (errors.length() > 1) errors.append(", ");
+            errors.append(quote(hostErrors.getKey())).append(": ").append(hostErrors.getValue());
+        }
+        json.append("  \"fetchErrorsByHost\": ").append(errors).append("}\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Replaces the file with the current {@link #toJson()} snapshot, readers never see a half-written file.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String histogramJson(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "{\"count\": %d, \"mean\": %s, \"p50\": %s, \"p90\": %s, \"p99\": %s, \"max\": %s}",
+                histogram.getCount(), number(histogram.getMeanMillis()), number(histogram.getPercentileMillis(50)),
+                number(histogram.getPercentileMillis(90)), number(histogram.getPercentileMillis(99)),
+                number(histogram.getMaxMillis()));
+    }
+
+    private static void appendField(StringBuilder json, String name, Object value) {
+        json.append("  \"").append(name).append("\": ").append(value).append(",\n");
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
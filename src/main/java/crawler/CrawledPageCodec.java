@@ -0,0 +1,107 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a {@link CrawledPage} for spill and state files.
+ * Every record starts with a version byte, so a stream of records can be read until {@link #read} returns null.
+ */
+public class CrawledPageCodec {
+
+    private static final int RECORD_VERSION = 2;
+
+    protected static void write(DataOutput out, CrawledPage page) throws IOException {
+        out.writeByte(RECORD_VERSION);
+        writeString(out, page.getUrl());
+        out.writeInt(page.getDepth());
+        out.writeBoolean(page.isBroken());
+        writeStrings(out, page.getHeadings());
+        writeStrings(out, page.getLinks());
+
+        List<String> startUrls = new ArrayList<>();
+        for (URL root : page.getFromStartUrls()) {
+            startUrls.add(root.toExternalForm());
+        }
+        writeStrings(out, startUrls);
+        out.writeLong(page.getContentHash());
+        out.writeLong(page.getSimHash());
+        writeString(out, page.getDuplicateOf());
+    }
+
+    /**
+     * @return The next page, or null if the stream ended cleanly before a new record.
+     */
+    protected static CrawledPage read(DataInput in) throws IOException {
+        int version;
+        try {
+            version = in.readUnsignedByte();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (version != 1 && version != RECORD_VERSION) {
+            throw new IOException("Unsupported page record version " + version);
+        }
+
+        CrawledPage page = new CrawledPage(readString(in), in.readInt(), null, null, in.readBoolean());
+        page.setHeadings(readStrings(in));
+        page.setLinks(readStrings(in));
+        for (String root : readStrings(in)) {
+            page.getFromStartUrls().add(new URL(root));
+        }
+        // Version 1 records predate content fingerprints
+        if (version >= 2) {
+            page.setContentHash(in.readLong());
+            page.setSimHash(in.readLong());
+            page.setDuplicateOf(readString(in));
+        }
+        return page;
+    }
+
+    protected static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    protected static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    protected static List<String> readStrings(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) return null;
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
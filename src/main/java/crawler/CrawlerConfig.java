@@ -3,16 +3,75 @@ package crawler;
 
 import java.net.URL;
 import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public class CrawlerConfig {
+    public enum ExecutorMode { FIXED_POOL, VIRTUAL_THREADS }
+    public enum VisitedSetType { EXACT, FINGERPRINT }
+    public enum ParserMode { DOM, STREAMING }
+    public enum LogLevel { DEBUG, INFO, WARN, ERROR }
+    public enum ContentDedup { OFF, EXACT, NEAR }
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 20;
+    private static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 1000;
+    private static final double DEFAULT_REQUESTS_PER_SECOND_PER_HOST = 10;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 8;
+    private static final long DEFAULT_EXPECTED_URL_COUNT = 1 << 20;
+    private static final double DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_RATE = 0.01;
+    private static final int DEFAULT_CONNECTION_IDLE_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_CACHE_SIZE_MB = 256;
+    private static final int DEFAULT_CHECKPOINT_INTERVAL_SECONDS = 10;
+    private static final int DEFAULT_FRONTIER_MEMORY_LIMIT = 100_000;
+    private static final int DEFAULT_METRICS_INTERVAL_SECONDS = 10;
+    private static final int DEFAULT_SIMHASH_DISTANCE = 3;
+    private static final int MAX_SIMHASH_DISTANCE = 8;
+
     private final List<URL> startUrls;
     private final int maxDepth;
     private final Set<String> allowedDomains;
+    private final DomainMatcher domainMatcher;
+    private ExecutorMode executorMode = ExecutorMode.FIXED_POOL;
+    private int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+    private int maxInFlightRequests = DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+    private double requestsPerSecondPerHost = DEFAULT_REQUESTS_PER_SECOND_PER_HOST;
+    private final Map<String, Double> hostRequestsPerSecond = new HashMap<>();
+    private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private VisitedSetType visitedSetType = VisitedSetType.EXACT;
+    private long expectedUrlCount = DEFAULT_EXPECTED_URL_COUNT;
+    private boolean bloomFilterEnabled = false;
+    private double bloomFilterFalsePositiveRate = DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_RATE;
+    private boolean streamingReport = false;
+    private ParserMode parserMode = ParserMode.DOM;
+    private boolean asyncFetch = false;
+    private boolean connectionPooling = false;
+    private int connectionIdleTimeoutSeconds = DEFAULT_CONNECTION_IDLE_TIMEOUT_SECONDS;
+    private String cacheDirectory;
+    private int cacheSizeMb = DEFAULT_CACHE_SIZE_MB;
+    private String stateFile;
+    private boolean incremental = false;
+    private String checkpointFile;
+    private int checkpointIntervalSeconds = DEFAULT_CHECKPOINT_INTERVAL_SECONDS;
+    private boolean resume = false;
+    private int frontierMemoryLimit = DEFAULT_FRONTIER_MEMORY_LIMIT;
+    private int timeLimitSeconds = 0;
+    private int maxPages = 0;
+    private LogLevel logLevel = LogLevel.INFO;
+    private int metricsIntervalSeconds = DEFAULT_METRICS_INTERVAL_SECONDS;
+    private String metricsFile;
+    private boolean inboundLinkScoring = false;
+    private final Map<String, Double> urlPatternWeights = new LinkedHashMap<>();
+    private ContentDedup contentDedup = ContentDedup.OFF;
+    private int simHashDistance = DEFAULT_SIMHASH_DISTANCE;
+    private List<String> strippedQueryParams = CanonicalizationRules.DEFAULT_STRIPPED_PARAMS;
+    private final List<String> urlRules = new ArrayList<>();
+    private UrlCanonicalizer urlCanonicalizer = UrlCanonicalizer.DEFAULT;
 
     public CrawlerConfig(List<URL> startUrlString, int maxDepth, Set<String> domains) throws IllegalArgumentException {
         this.startUrls = startUrlString;
         this.maxDepth = maxDepth;
         this.allowedDomains = normalizeDomains(domains);
+        this.domainMatcher = new DomainMatcher(allowedDomains);
     }
 
     private Set<String> normalizeDomains(Set<String> domains) throws IllegalArgumentException {
@@ -41,6 +100,39 @@ public class CrawlerConfig {
                 "startUrl=" + startUrls +
                 ", maxDepth=" + maxDepth +
                 ", allowedDomains=" + allowedDomains +
+                ", executorMode=" + executorMode +
+                ", threadPoolSize=" + threadPoolSize +
+                ", maxInFlightRequests=" + maxInFlightRequests +
+                ", requestsPerSecondPerHost=" + requestsPerSecondPerHost +
+                ", maxConnectionsPerHost=" + maxConnectionsPerHost +
+                ", visitedSetType=" + visitedSetType +
+                ", expectedUrlCount=" + expectedUrlCount +
+                ", bloomFilterEnabled=" + bloomFilterEnabled +
+                ", bloomFilterFalsePositiveRate=" + bloomFilterFalsePositiveRate +
+                ", streamingReport=" + streamingReport +
+                ", parserMode=" + parserMode +
+                ", asyncFetch=" + asyncFetch +
+                ", connectionPooling=" + connectionPooling +
+                ", connectionIdleTimeoutSeconds=" + connectionIdleTimeoutSeconds +
+                ", cacheDirectory=" + cacheDirectory +
+                ", cacheSizeMb=" + cacheSizeMb +
+                ", stateFile=" + stateFile +
+                ", incremental=" + incremental +
+                ", checkpointFile=" + checkpointFile +
+                ", checkpointIntervalSeconds=" + checkpointIntervalSeconds +
+                ", resume=" + resume +
+                ", frontierMemoryLimit=" + frontierMemoryLimit +
+                ", timeLimitSeconds=" + timeLimitSeconds +
+                ", maxPages=" + maxPages +
+                ", logLevel=" + logLevel +
+                ", metricsIntervalSeconds=" + metricsIntervalSeconds +
+                ", metricsFile=" + metricsFile +
+                ", inboundLinkScoring=" + inboundLinkScoring +
+                ", urlPatternWeights=" + urlPatternWeights +
+                ", contentDedup=" + contentDedup +
+                ", simHashDistance=" + simHashDistance +
+                ", strippedQueryParams=" + strippedQueryParams +
+                ", urlRules=" + urlRules +
                 '}';
     }
 
@@ -56,4 +148,433 @@ public class CrawlerConfig {
         return allowedDomains;
     }
 
-}
\ No newline at end of file
+    /**
+     * Lookup structure for {@link #getAllowedDomains()}, built once.
+     */
+    public DomainMatcher getDomainMatcher() {
+        return domainMatcher;
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public void setExecutorMode(ExecutorMode executorMode) {
+        this.executorMode = Objects.requireNonNull(executorMode, "executorMode");
+    }
+
+    public int getThreadPoolSize() {
+        return threadPoolSize;
+    }
+
+    public void setThreadPoolSize(int threadPoolSize) throws IllegalArgumentException {
+        if (threadPoolSize < 1) {
+            throw new IllegalArgumentException("Thread pool size must be >= 1.");
+        }
+        this.threadPoolSize = threadPoolSize;
+    }
+
+    /**
+     * Upper bound for page fetches running at the same time, independent of the executor mode.
+     * With a fixed pool the pool size caps this as well, with virtual threads this is the only cap.
+     */
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public void setMaxInFlightRequests(int maxInFlightRequests) throws IllegalArgumentException {
+        if (maxInFlightRequests < 1) {
+            throw new IllegalArgumentException("Max in-flight requests must be >= 1.");
+        }
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    public double getRequestsPerSecondPerHost() {
+        return requestsPerSecondPerHost;
+    }
+
+    /**
+     * Default politeness rate for every host, values <= 0 disable rate limiting.
+     */
+    public void setRequestsPerSecondPerHost(double requestsPerSecondPerHost) {
+        this.requestsPerSecondPerHost = requestsPerSecondPerHost;
+    }
+
+    public double getRequestsPerSecondForHost(String host) {
+        return hostRequestsPerSecond.getOrDefault(host, requestsPerSecondPerHost);
+    }
+
+    /**
+     * Overrides the politeness rate for a single host, values <= 0 disable rate limiting for it.
+     */
+    public void setRequestsPerSecondForHost(String host, double requestsPerSecond) {
+        hostRequestsPerSecond.put(host.trim().toLowerCase(), requestsPerSecond);
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) throws IllegalArgumentException {
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("Max connections per host must be >= 1.");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public VisitedSetType getVisitedSetType() {
+        return visitedSetType;
+    }
+
+    public void setVisitedSetType(VisitedSetType visitedSetType) {
+        this.visitedSetType = Objects.requireNonNull(visitedSetType, "visitedSetType");
+    }
+
+    /**
+     * Number of distinct URLs the crawl is expected to see, used to presize compact data structures.
+     */
+    public long getExpectedUrlCount() {
+        return expectedUrlCount;
+    }
+
+    public void setExpectedUrlCount(long expectedUrlCount) throws IllegalArgumentException {
+        if (expectedUrlCount < 1) {
+            throw new IllegalArgumentException("Expected URL count must be >= 1.");
+        }
+        if (expectedUrlCount > FingerprintVisitedSet.MAX_EXPECTED_URLS) {
+            throw new IllegalArgumentException("Expected URL count must be <= " + FingerprintVisitedSet.MAX_EXPECTED_URLS
+                    + ", the fingerprint table can not grow past that.");
+        }
+        this.expectedUrlCount = expectedUrlCount;
+    }
+
+    public boolean isBloomFilterEnabled() {
+        return bloomFilterEnabled;
+    }
+
+    public void setBloomFilterEnabled(boolean bloomFilterEnabled) {
+        this.bloomFilterEnabled = bloomFilterEnabled;
+    }
+
+    public double getBloomFilterFalsePositiveRate() {
+        return bloomFilterFalsePositiveRate;
+    }
+
+    public void setBloomFilterFalsePositiveRate(double bloomFilterFalsePositiveRate) throws IllegalArgumentException {
+        if (bloomFilterFalsePositiveRate <= 0 || bloomFilterFalsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter false positive rate must be between 0 and 1.");
+        }
+        this.bloomFilterFalsePositiveRate = bloomFilterFalsePositiveRate;
+    }
+
+    /**
+     * Whether finished pages are spilled to disk during the crawl instead of being kept in memory for the report.
+     */
+    public boolean isStreamingReport() {
+        return streamingReport;
+    }
+
+    public void setStreamingReport(boolean streamingReport) {
+        this.streamingReport = streamingReport;
+    }
+
+    /**
+     * Whether pages are parsed into a full jsoup DOM or tokenized as they are read, keeping only headings and links.
+     */
+    public ParserMode getParserMode() {
+        return parserMode;
+    }
+
+    public void setParserMode(ParserMode parserMode) {
+        this.parserMode = parserMode;
+    }
+
+    /**
+     * Whether pages are fetched with the non-blocking HttpClient fetcher, so worker threads never wait on the network.
+     */
+    public boolean isAsyncFetch() {
+        return asyncFetch;
+    }
+
+    public void setAsyncFetch(boolean asyncFetch) {
+        this.asyncFetch = asyncFetch;
+    }
+
+    /**
+     * Whether pages are fetched over kept-alive connections from a connection pool per host.
+     */
+    public boolean isConnectionPooling() {
+        return connectionPooling;
+    }
+
+    public void setConnectionPooling(boolean connectionPooling) {
+        this.connectionPooling = connectionPooling;
+    }
+
+    /**
+     * How long a pooled connection may stay idle before it is closed.
+     */
+    public int getConnectionIdleTimeoutSeconds() {
+        return connectionIdleTimeoutSeconds;
+    }
+
+    public void setConnectionIdleTimeoutSeconds(int connectionIdleTimeoutSeconds) throws IllegalArgumentException {
+        if (connectionIdleTimeoutSeconds <= 0) {
+            throw new IllegalArgumentException("Connection idle timeout must be positive.");
+        }
+        this.connectionIdleTimeoutSeconds = connectionIdleTimeoutSeconds;
+    }
+
+    /**
+     * Directory of the page cache used to revalidate pages on re-crawls, or null if caching is off.
+     */
+    public String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(String cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public int getCacheSizeMb() {
+        return cacheSizeMb;
+    }
+
+    public void setCacheSizeMb(int cacheSizeMb) throws IllegalArgumentException {
+        if (cacheSizeMb <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.cacheSizeMb = cacheSizeMb;
+    }
+
+    /**
+     * File the crawl graph is saved to after the crawl, and loaded from for an incremental crawl; null if none.
+     */
+    public String getStateFile() {
+        return stateFile;
+    }
+
+    public void setStateFile(String stateFile) {
+        this.stateFile = stateFile;
+    }
+
+    /**
+     * Whether the crawl starts from the graph in the state file and only expands pages whose links changed.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Append-only log of the running crawl, deleted once the crawl finishes; null if none.
+     */
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public int getCheckpointIntervalSeconds() {
+        return checkpointIntervalSeconds;
+    }
+
+    public void setCheckpointIntervalSeconds(int checkpointIntervalSeconds) throws IllegalArgumentException {
+        if (checkpointIntervalSeconds <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive.");
+        }
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+    }
+
+    /**
+     * Whether the crawl continues from the checkpoint file left behind by a crawl that did not finish.
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * Number of waiting tasks the frontier keeps on the heap, the rest is spilled to disk.
+     */
+    public int getFrontierMemoryLimit() {
+        return frontierMemoryLimit;
+    }
+
+    public void setFrontierMemoryLimit(int frontierMemoryLimit) throws IllegalArgumentException {
+        if (frontierMemoryLimit <= 0) {
+            throw new IllegalArgumentException("Frontier memory limit must be positive.");
+        }
+        this.frontierMemoryLimit = frontierMemoryLimit;
+    }
+
+    /**
+     * Wall-clock limit of the crawl, after which it stops and returns the pages it has; 0 for no limit.
+     */
+    public int getTimeLimitSeconds() {
+        return timeLimitSeconds;
+    }
+
+    public void setTimeLimitSeconds(int timeLimitSeconds) throws IllegalArgumentException {
+        if (timeLimitSeconds < 0) {
+            throw new IllegalArgumentException("Time limit must not be negative.");
+        }
+        this.timeLimitSeconds = timeLimitSeconds;
+    }
+
+    /**
+     * Number of pages the crawl fetches before it stops and returns them; 0 for no limit.
+     */
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public void setMaxPages(int maxPages) throws IllegalArgumentException {
+        if (maxPages < 0) {
+            throw new IllegalArgumentException("Max pages must not be negative.");
+        }
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Lowest level the crawl logs; every fetched URL is logged at DEBUG.
+     */
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public void setLogLevel(LogLevel logLevel) {
+        this.logLevel = Objects.requireNonNull(logLevel, "logLevel");
+    }
+
+    /**
+     * How often a metrics summary is logged and the snapshot rewritten; 0 for only once at the end.
+     */
+    public int getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
+
+    public void setMetricsIntervalSeconds(int metricsIntervalSeconds) throws IllegalArgumentException {
+        if (metricsIntervalSeconds < 0) {
+            throw new IllegalArgumentException("Metrics interval must not be negative.");
+        }
+        this.metricsIntervalSeconds = metricsIntervalSeconds;
+    }
+
+    /**
+     * File the JSON metrics snapshot is written to, or null for no snapshot.
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    /**
+     * Whether tasks of the same depth are ranked by the number of links to their page seen so far.
+     */
+    public boolean isInboundLinkScoring() {
+        return inboundLinkScoring;
+    }
+
+    public void setInboundLinkScoring(boolean inboundLinkScoring) {
+        this.inboundLinkScoring = inboundLinkScoring;
+    }
+
+    /**
+     * Weights added to the score of tasks whose URL contains a match of the regular expression.
+     */
+    public Map<String, Double> getUrlPatternWeights() {
+        return Collections.unmodifiableMap(urlPatternWeights);
+    }
+
+    public void addUrlPatternWeight(String pattern, double weight) throws IllegalArgumentException {
+        try {
+            Pattern.compile(pattern);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("URL pattern '" + pattern + "' is not a valid regular expression.");
+        }
+        if (!Double.isFinite(weight)) {
+            throw new IllegalArgumentException("URL pattern weight must be a finite number.");
+        }
+        urlPatternWeights.put(pattern, weight);
+    }
+
+    /**
+     * Whether pages with the same (EXACT) or nearly the same (NEAR) headings and links as an earlier page are
+     * marked as duplicates and their links are not followed.
+     */
+    public ContentDedup getContentDedup() {
+        return contentDedup;
+    }
+
+    public void setContentDedup(ContentDedup contentDedup) {
+        this.contentDedup = Objects.requireNonNull(contentDedup, "contentDedup");
+    }
+
+    /**
+     * Number of SimHash bits in which near-duplicate pages may differ.
+     */
+    public int getSimHashDistance() {
+        return simHashDistance;
+    }
+
+    public void setSimHashDistance(int simHashDistance) throws IllegalArgumentException {
+        if (simHashDistance < 0 || simHashDistance > MAX_SIMHASH_DISTANCE) {
+            throw new IllegalArgumentException("SimHash distance must be between 0 and " + MAX_SIMHASH_DISTANCE + ".");
+        }
+        this.simHashDistance = simHashDistance;
+    }
+
+    /**
+     * Query parameters dropped from every URL before pages are compared, {@code utm_*} and {@code sessionid}
+     * by default. A trailing {@code *} matches by prefix.
+     */
+    public List<String> getStrippedQueryParams() {
+        return strippedQueryParams;
+    }
+
+    public void setStrippedQueryParams(List<String> strippedQueryParams) throws IllegalArgumentException {
+        urlCanonicalizer = new UrlCanonicalizer(new CanonicalizationRules(strippedQueryParams, urlRules));
+        this.strippedQueryParams = List.copyOf(strippedQueryParams);
+    }
+
+    /**
+     * Per-domain query rules, see {@link CanonicalizationRules}.
+     */
+    public List<String> getUrlRules() {
+        return Collections.unmodifiableList(urlRules);
+    }
+
+    public void addUrlRule(String rule) throws IllegalArgumentException {
+        List<String> rules = new ArrayList<>(urlRules);
+        rules.add(rule);
+        urlCanonicalizer = new UrlCanonicalizer(new CanonicalizationRules(strippedQueryParams, rules));
+        urlRules.add(rule);
+    }
+
+    /**
+     * The stripped parameters and URL rules, compiled.
+     */
+    public CanonicalizationRules getCanonicalizationRules() {
+        return urlCanonicalizer.getRules();
+    }
+
+    /**
+     * Canonicalizer for these rules. Everything that keys pages by URL in one crawl must use this one instance.
+     */
+    public UrlCanonicalizer getUrlCanonicalizer() {
+        return urlCanonicalizer;
+    }
+
+}
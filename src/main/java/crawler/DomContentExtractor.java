@@ -0,0 +1,51 @@
+package crawler;
+
+import crawler.model.PageContent;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects headings and links from a parsed document in a single traversal, both in document order.
+ */
+public class DomContentExtractor implements NodeVisitor {
+
+    private static final int HTML_NUMBER_OF_HEADINGS = 6;
+
+    private final List<String> headings = new ArrayList<>();
+    private final List<String> links = new ArrayList<>();
+
+    protected static PageContent extract(Document document) {
+        DomContentExtractor extractor = new DomContentExtractor();
+        NodeTraversor.traverse(extractor, document);
+        return new PageContent(extractor.headings, extractor.links);
+    }
+
+    protected static int headingLevel(String tagName) {
+        if (tagName.length() != 2 || tagName.charAt(0) != 'h') return 0;
+        int level = tagName.charAt(1) - '0';
+        return level >= 1 && level <= HTML_NUMBER_OF_HEADINGS ? level : 0;
+    }
+
+    @Override
+    public void head(Node node, int depth) {
+        if (!(node instanceof Element element)) return;
+
+        if (headingLevel(element.normalName()) > 0) {
+            String text = element.text().trim();
+            if (!text.isEmpty()) {
+                headings.add(text);
+            }
+        } else if (element.normalName().equals("a") && element.hasAttr("href")) {
+            String href = element.absUrl("href").trim().toLowerCase();
+            if (!href.isEmpty()) {
+                links.add(href);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package crawler;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Decides whether a host belongs to the allowed domains. A plain entry such as {@code example.com} matches that
+ * host only, a wildcard entry such as {@code *.example.com} matches {@code example.com} and every subdomain of it.
+ * Both are hash lookups, a wildcard check looks up each suffix of the host that starts after a dot.
+ */
+public class DomainMatcher {
+
+    private static final String WILDCARD_PREFIX = "*.";
+
+    private final Set<String> exactHosts = new HashSet<>();
+    private final Set<String> domainSuffixes = new HashSet<>();
+
+    /**
+     * @param domains Lowercased hosts, optionally prefixed with {@code *.}.
+     */
+    public DomainMatcher(Set<String> domains) {
+        for (String domain : domains) {
+            if (domain.startsWith(WILDCARD_PREFIX)) {
+                domainSuffixes.add(domain.substring(WILDCARD_PREFIX.length()));
+            } else {
+                exactHosts.add(domain);
+            }
+        }
+    }
+
+    /**
+     * @param host A lowercased host, as returned by {@link UrlCanonicalizer#extractHost(String)}.
+     */
+    public boolean matches(String host) {
+        if (host.isEmpty()) return false;
+        if (exactHosts.contains(host)) return true;
+        if (domainSuffixes.isEmpty()) return false;
+
+        if (domainSuffixes.contains(host)) return true;
+        for (int dot = host.indexOf('.'); dot >= 0; dot = host.indexOf('.', dot + 1)) {
+            if (domainSuffixes.contains(host.substring(dot + 1))) return true;
+        }
+        return false;
+    }
+}
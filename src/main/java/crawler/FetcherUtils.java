@@ -0,0 +1,45 @@
+package crawler;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+public class FetcherUtils {
+
+    /**
+     * Rejects the same responses Jsoup.connect().get() rejects: error statuses and non-HTML content types.
+     */
+    protected static void checkResponse(int status, String contentType, String url) throws IOException {
+        if (status < 200 || status >= 400) {
+            throw new IOException("HTTP error fetching URL. Status=" + status + ", URL=" + url);
+        }
+        if (contentType == null) return;
+
+        String mimeType = contentType.toLowerCase(Locale.ROOT);
+        if (!mimeType.startsWith("text/") && !mimeType.startsWith("application/xhtml+xml")
+                && !mimeType.startsWith("application/xml") && !mimeType.contains("+xml")) {
+            throw new IOException("Unhandled content type " + contentType + ", URL=" + url);
+        }
+    }
+
+    protected static String charsetParameter(String contentType) {
+        if (contentType == null) return null;
+
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                return trimmed.substring(8).replace("\"", "").trim();
+            }
+        }
+        return null;
+    }
+
+    protected static Charset charsetOrUtf8(String name) {
+        try {
+            return name != null && Charset.isSupported(name) ? Charset.forName(name) : StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
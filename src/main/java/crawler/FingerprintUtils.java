@@ -0,0 +1,78 @@
+package crawler;
+
+import java.util.List;
+import java.util.Locale;
+
+public class FingerprintUtils {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars, followed by the MurmurHash3 finalizer so that every input
+     * bit affects every output bit. Collisions are expected around 2^32 distinct inputs.
+     */
+    protected static long hash64(CharSequence value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix64(hash);
+    }
+
+    protected static long mix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Hash of the extracted headings and links in page order, 0 if the page has neither.
+     * Links should be normalized so that URL variants such as session parameters do not tell copies apart.
+     */
+    protected static long contentHash(List<String> headings, List<String> links) {
+        if (headings.isEmpty() && links.isEmpty()) return 0;
+
+        // The heading count keeps a heading from being confused with a link of the same text
+        long hash = mix64(headings.size());
+        for (String heading : headings) {
+            hash = mix64(hash * FNV_PRIME + hash64(heading));
+        }
+        for (String link : links) {
+            hash = mix64(hash * FNV_PRIME + hash64(link));
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * 64-bit SimHash over the lowercased heading words and the links of a page. Pages that share most of these
+     * features end up a few bits apart, see {@link ContentFingerprintIndex}.
+     */
+    protected static long simHash(List<String> headings, List<String> links) {
+        int[] votes = new int[64];
+        for (String heading : headings) {
+            for (String word : heading.toLowerCase(Locale.ROOT).split("\\s+")) {
+                if (!word.isEmpty()) addVotes(votes, hash64(word));
+            }
+        }
+        for (String link : links) {
+            addVotes(votes, hash64(link));
+        }
+
+        long simHash = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) simHash |= 1L << bit;
+        }
+        return simHash;
+    }
+
+    private static void addVotes(int[] votes, long featureHash) {
+        for (int bit = 0; bit < 64; bit++) {
+            votes[bit] += ((featureHash >>> bit) & 1) == 1 ? 1 : -1;
+        }
+    }
+}
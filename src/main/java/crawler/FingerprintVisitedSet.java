@@ -0,0 +1,94 @@
+package crawler;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stores a 64-bit fingerprint per URL in a preallocated open-addressing table of primitive longs,
+ * about 16 bytes per URL at the expected size and no per-entry objects for the GC to trace.
+ * Slots are claimed with a CAS from empty to the fingerprint, so adding is lock-free.
+ * If the table fills up, fingerprints that find no free slot within {@value #MAX_PROBES} probes
+ * spill into a regular concurrent set instead of failing the crawl.
+ * Two different URLs with the same fingerprint are treated as the same page, with 64 bits that is
+ * unlikely below billions of URLs.
+ */
+public class FingerprintVisitedSet implements VisitedSet {
+
+    private static final long EMPTY = 0L;
+    private static final int MAX_PROBES = 64;
+    private static final int MAX_CAPACITY = 1 << 30;
+    // Keeps the largest table at a load factor of 0.5
+    protected static final long MAX_EXPECTED_URLS = MAX_CAPACITY / 2;
+    // Boxed Long (16) + ConcurrentHashMap node (32) + table slot (~11)
+    private static final int OVERFLOW_BYTES_PER_ENTRY = 59;
+
+    private final AtomicLongArray table;
+    private final int mask;
+    private final Set<Long> overflow = ConcurrentHashMap.newKeySet();
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * @param expectedUrls Number of URLs the table is sized for, it keeps the load factor at or below 0.5.
+     */
+    public FingerprintVisitedSet(long expectedUrls) {
+        int capacity = tableSizeFor(Math.max(expectedUrls, 1) * 2);
+        this.table = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public boolean add(String normalizedUrl) {
+        long fingerprint = fingerprint(normalizedUrl);
+        int slot = (int) fingerprint & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            long current = table.get(slot);
+            if (current == EMPTY) {
+                if (table.compareAndSet(slot, EMPTY, fingerprint)) {
+                    size.increment();
+                    return true;
+                }
+                current = table.get(slot);
+            }
+            if (current == fingerprint) return false;
+            slot = (slot + 1) & mask;
+        }
+        if (!overflow.add(fingerprint)) return false;
+        size.increment();
+        return true;
+    }
+
+    @Override
+    public boolean contains(String normalizedUrl) {
+        long fingerprint = fingerprint(normalizedUrl);
+        int slot = (int) fingerprint & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            long current = table.get(slot);
+            if (current == fingerprint) return true;
+            if (current == EMPTY) return false;
+            slot = (slot + 1) & mask;
+        }
+        return overflow.contains(fingerprint);
+    }
+
+    @Override
+    public long size() {
+        return size.sum();
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return table.length() * (long) Long.BYTES + overflow.size() * (long) OVERFLOW_BYTES_PER_ENTRY;
+    }
+
+    private static long fingerprint(String normalizedUrl) {
+        long fingerprint = FingerprintUtils.hash64(normalizedUrl);
+        return fingerprint == EMPTY ? 1L : fingerprint;
+    }
+
+    private static int tableSizeFor(long minimum) {
+        if (minimum >= MAX_CAPACITY) return MAX_CAPACITY;
+        return Integer.highestOneBit((int) minimum - 1) << 1;
+    }
+}
@@ -0,0 +1,188 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * FIFO queue of crawl tasks kept in memory-mapped segment files instead of on the heap, used by
+ * {@link HostFrontier} for tasks beyond its in-memory limit. Tasks are appended to the newest segment and read
+ * from the oldest one, which is deleted once it has been read completely. The segment directory is only created
+ * when the first task spills.
+ * <p>
+ * Not thread-safe, callers synchronize.
+ */
+public class FrontierSpill implements Closeable {
+
+    private static final int DEFAULT_SEGMENT_BYTES = 16 * 1024 * 1024;
+    private static final int RECORD_OVERHEAD = Integer.BYTES + Integer.BYTES + Short.BYTES;
+
+    private final List<URL> startUrls;
+    private final int segmentBytes;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    // Still mapped on some platforms, deleting is retried on close
+    private final List<Path> undeletedFiles = new ArrayList<>();
+    private Path directory;
+    private long nextSegmentId;
+    private long size;
+
+    public FrontierSpill(List<URL> startUrls) {
+        this(startUrls, DEFAULT_SEGMENT_BYTES);
+    }
+
+    protected FrontierSpill(List<URL> startUrls, int segmentBytes) {
+        this.startUrls = startUrls;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public void add(CrawlTask task) {
+        byte[] url = task.getUrl().getBytes(StandardCharsets.UTF_8);
+        int root = WebCrawlerUtils.indexOfStartUrl(startUrls, task.getRootStartUrl());
+        try {
+            Segment segment = segments.peekLast();
+            if (segment == null || segment.remaining() < RECORD_OVERHEAD + url.length) {
+                segment = openSegment(RECORD_OVERHEAD + url.length);
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            int position = segment.writePosition;
+            buffer.putInt(position, url.length);
+            buffer.put(position + Integer.BYTES, url);
+            buffer.putInt(position + Integer.BYTES + url.length, task.getDepth());
+            buffer.putShort(position + Integer.BYTES * 2 + url.length, (short) root);
+            segment.writePosition = position + RECORD_OVERHEAD + url.length;
+            size++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spill frontier to disk", e);
+        }
+    }
+
+    /**
+     * @return The oldest spilled task, or null if there is none.
+     */
+    public CrawlTask poll() {
+        if (size == 0) return null;
+
+        Segment segment = segments.peekFirst();
+        while (segment.readPosition == segment.writePosition) {
+            deleteLater(segments.pollFirst());
+            segment = segments.peekFirst();
+        }
+
+        MappedByteBuffer buffer = segment.buffer;
+        int position = segment.readPosition;
+        byte[] url = new byte[buffer.getInt(position)];
+        buffer.get(position + Integer.BYTES, url);
+        int depth = buffer.getInt(position + Integer.BYTES + url.length);
+        int root = Short.toUnsignedInt(buffer.getShort(position + Integer.BYTES * 2 + url.length));
+        segment.readPosition = position + RECORD_OVERHEAD + url.length;
+        size--;
+        if (size == 0) {
+            // Everything has been read, start over at the beginning of the newest segment
+            while (segments.size() > 1) deleteLater(segments.pollFirst());
+            segment = segments.peekFirst();
+            segment.readPosition = 0;
+            segment.writePosition = 0;
+        }
+        return new CrawlTask(new String(url, StandardCharsets.UTF_8), depth, startUrls.get(root));
+    }
+
+    private void deleteLater(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            undeletedFiles.add(segment.file);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Number of segment files currently on disk.
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    private Segment openSegment(int minimumBytes) throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("crawl-frontier-");
+        }
+        Path file = directory.resolve(String.format("%08d.segment", nextSegmentId++));
+        int capacity = Math.max(segmentBytes, minimumBytes);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            Segment segment = new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            segments.addLast(segment);
+            return segment;
+        }
+    }
+
+    /**
+     * Deletes the segment files, tasks still in the spill are lost.
+     *
+     * @throws IOException If a file or the directory could not be deleted, after trying all of them.
+     */
+    @Override
+    public void close() throws IOException {
+        while (!segments.isEmpty()) {
+            undeletedFiles.add(segments.pollFirst().file);
+        }
+        size = 0;
+        IOException failure = null;
+        for (Path file : undeletedFiles) {
+            failure = deleteCollectingFailure(file, failure);
+        }
+        undeletedFiles.clear();
+        if (directory != null) {
+            failure = deleteCollectingFailure(directory, failure);
+        }
+        if (failure != null) throw failure;
+    }
+
+    private static IOException deleteCollectingFailure(Path file, IOException failure) {
+        try {
+            Files.deleteIfExists(file);
+            return failure;
+        } catch (IOException e) {
+            if (failure == null) return e;
+            failure.addSuppressed(e);
+            return failure;
+        }
+    }
+
+    private static class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int readPosition;
+        private int writePosition;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        private int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+    }
+}
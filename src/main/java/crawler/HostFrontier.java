@@ -0,0 +1,186 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Holds the URLs waiting to be crawled, with one queue per host.
+ * A host is only handed out when its token bucket has a token and it is below its connection limit,
+ * so one slow or throttled host never blocks the others.
+ * <p>
+ * Among the hosts that may be contacted, the task with the lowest depth wins, then the one with the highest
+ * {@link LinkScorer} score, then the one that arrived first. Hosts whose next tasks rank equally take turns.
+ * A page-budgeted crawl therefore fetches the shallow and high-scoring pages before the rest.
+ * <p>
+ * At most {@link CrawlerConfig#getFrontierMemoryLimit()} tasks are kept in the host queues. Further tasks go to a
+ * {@link FrontierSpill} on disk and are read back in the order they arrived once the host queues have drained
+ * to half the limit, so heap use does not grow with the size of the site. Spilled tasks are only ranked
+ * once they are back in memory.
+ */
+public class HostFrontier implements Closeable {
+
+    private static final Comparator<QueuedTask> PRIORITY = Comparator
+            .<QueuedTask>comparingInt(queued -> queued.task.getDepth())
+            .thenComparing(queued -> queued.score, Comparator.reverseOrder());
+    private static final Comparator<QueuedTask> ARRIVAL_ORDER = PRIORITY
+            .thenComparingLong(queued -> queued.sequence);
+
+    private final CrawlerConfig config;
+    private final LinkScorer scorer;
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    private final Queue<HostQueue> hostsWithWork = new ArrayDeque<>();
+    private final FrontierSpill spill;
+    private final int memoryLimit;
+    private int size;
+    private long spilledTasks;
+    private long sequence;
+
+    public HostFrontier(CrawlerConfig config) {
+        this(config, LinkScorer.NONE);
+    }
+
+    public HostFrontier(CrawlerConfig config, LinkScorer scorer) {
+        this(config, scorer, new FrontierSpill(config.getStartUrls()));
+    }
+
+    protected HostFrontier(CrawlerConfig config, LinkScorer scorer, FrontierSpill spill) {
+        this.config = config;
+        this.scorer = scorer;
+        this.spill = spill;
+        this.memoryLimit = config.getFrontierMemoryLimit();
+    }
+
+    public synchronized void offer(CrawlTask task) {
+        // Once anything is spilled, newer tasks queue up behind it to keep the arrival order
+        if (size >= memoryLimit || !spill.isEmpty()) {
+            spill.add(task);
+            spilledTasks++;
+            return;
+        }
+        addToHostQueue(task);
+    }
+
+    private void addToHostQueue(CrawlTask task) {
+        String host = WebCrawlerUtils.extractHost(task.getUrl());
+        HostQueue queue = hosts.computeIfAbsent(host, h -> new HostQueue(config.getRequestsPerSecondForHost(h)));
+        if (queue.tasks.isEmpty()) {
+            hostsWithWork.add(queue);
+        }
+        queue.tasks.add(new QueuedTask(task, scorer.score(task), sequence++));
+        size++;
+    }
+
+    /**
+     * Returns the next task of a host that may be contacted right now, or null if every host with
+     * pending work is rate limited or at its connection limit. The caller must hand the task back
+     * through {@link #release(CrawlTask, boolean)} once it is done.
+     */
+    public synchronized CrawlTask poll(long nowNanos) {
+        if (size <= memoryLimit / 2 && !spill.isEmpty()) {
+            refillFromSpill();
+        }
+        HostQueue best = null;
+        for (HostQueue queue : hostsWithWork) {
+            if (queue.activeConnections >= config.getMaxConnectionsPerHost()
+                    || queue.bucket.nanosUntilAvailable(nowNanos) > 0) continue;
+            // Only a strictly better task beats a host further ahead in the rotation
+            if (best == null || PRIORITY.compare(queue.tasks.peek(), best.tasks.peek()) < 0) {
+                best = queue;
+            }
+        }
+        if (best == null || !best.bucket.tryAcquire(nowNanos)) return null;
+
+        hostsWithWork.remove(best);
+        CrawlTask task = best.tasks.poll().task;
+        best.activeConnections++;
+        size--;
+        if (!best.tasks.isEmpty()) hostsWithWork.add(best);
+        return task;
+    }
+
+    private void refillFromSpill() {
+        while (size < memoryLimit && !spill.isEmpty()) {
+            addToHostQueue(spill.poll());
+        }
+    }
+
+    /**
+     * @param fetched Whether the task actually contacted the host, tasks that were skipped get their token back.
+     */
+    public synchronized void release(CrawlTask task, boolean fetched) {
+        HostQueue queue = hosts.get(WebCrawlerUtils.extractHost(task.getUrl()));
+        if (queue == null) return;
+        queue.activeConnections--;
+        if (!fetched) queue.bucket.refund();
+    }
+
+    /**
+     * Time until a rate-limited host gets its next token, Long.MAX_VALUE if only connection limits
+     * (or nothing at all) keep the pending tasks from being dispatched.
+     */
+    public synchronized long nanosUntilReady(long nowNanos) {
+        long wait = Long.MAX_VALUE;
+        for (HostQueue queue : hostsWithWork) {
+            if (queue.activeConnections < config.getMaxConnectionsPerHost()) {
+                wait = Math.min(wait, queue.bucket.nanosUntilAvailable(nowNanos));
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * Number of waiting tasks, spilled ones included.
+     */
+    public synchronized long size() {
+        return size + spill.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0 && spill.isEmpty();
+    }
+
+    /**
+     * Number of tasks that went to disk because the host queues were full.
+     */
+    public synchronized long getSpilledTasks() {
+        return spilledTasks;
+    }
+
+    /**
+     * Deletes the spill files, waiting tasks are dropped.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        spill.close();
+    }
+
+    private static class QueuedTask {
+        private final CrawlTask task;
+        private final double score;
+        private final long sequence;
+
+        private QueuedTask(CrawlTask task, double score, long sequence) {
+            this.task = task;
+            this.score = score;
+            this.sequence = sequence;
+        }
+    }
+
+    private static class HostQueue {
+        private final Queue<QueuedTask> tasks = new PriorityQueue<>(ARRIVAL_ORDER);
+        private final TokenBucket bucket;
+        private int activeConnections;
+
+        private HostQueue(double requestsPerSecond) {
+            this.bucket = new TokenBucket(requestsPerSecond, System.nanoTime());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package crawler;
 
+import crawler.model.FetchResult;
+import crawler.model.PageContent;
 import org.jsoup.nodes.Document;
 
 public interface HtmlFetcher {
@@ -11,5 +13,30 @@ public interface HtmlFetcher {
      * @throws Exception If fetching or parsing fails.
      */
     Document fetchDocumentFromUrl(String url) throws Exception;
-}
 
+    /**
+     * Fetches a page and returns only its headings and links. By default the page is parsed into a DOM first;
+     * fetchers that can extract the content without building the tree override this.
+     *
+     * @param url The URL to fetch.
+     * @return Headings and absolute, lowercased links in document order.
+     * @throws Exception If fetching or parsing fails.
+     */
+    default PageContent fetchContentFromUrl(String url) throws Exception {
+        return DomContentExtractor.extract(fetchDocumentFromUrl(url));
+    }
+
+    /**
+     * Fetches a page unless it is unchanged since the given validators were issued. Fetchers that do not
+     * support conditional requests ignore the validators and always return fresh content.
+     *
+     * @param url The URL to fetch.
+     * @param etag ETag of the cached copy, or null.
+     * @param lastModified Last-Modified of the cached copy, or null.
+     * @return Fresh content with its validators, or {@link FetchResult#notModified()} on a 304.
+     * @throws Exception If fetching or parsing fails.
+     */
+    default FetchResult fetchContentIfModified(String url, String etag, String lastModified) throws Exception {
+        return new FetchResult(fetchContentFromUrl(url), null, null);
+    }
+}
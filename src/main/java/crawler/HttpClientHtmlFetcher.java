@@ -0,0 +1,220 @@
+package crawler;
+
+import crawler.model.PageContent;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches pages with one shared JDK {@link HttpClient}, which pools connections and multiplexes requests over
+ * HTTP/2 where the server supports it. No thread waits on the network: the body is buffered by the client
+ * and only then handed to a separate pool sized for the CPU, where it is parsed according to the
+ * {@link CrawlerConfig.ParserMode}.
+ * <p>
+ * Status and Content-Type are checked as soon as the headers arrive: the body of an error or non-HTML
+ * response is discarded unread, and HTML bodies are cut off after {@link #MAX_BODY_BYTES} like Jsoup.connect
+ * does. {@link #close()} stops the client's and the parser's threads.
+ */
+public class HttpClientHtmlFetcher implements HtmlFetcher, AsyncHtmlFetcher, Closeable {
+
+    /**
+     * Jsoup.connect's default body limit, so every fetcher parses the same prefix of a large page.
+     */
+    protected static final int MAX_BODY_BYTES = 2 * 1024 * 1024;
+
+    private final HttpClient client;
+    private final Duration timeout;
+    private final CrawlerConfig.ParserMode parserMode;
+    private final int maxBodyBytes;
+    private final ExecutorService clientExecutor;
+    private final ExecutorService parseExecutor;
+
+    public HttpClientHtmlFetcher(int timeoutMillis, CrawlerConfig.ParserMode parserMode) {
+        this(timeoutMillis, parserMode, MAX_BODY_BYTES);
+    }
+
+    protected HttpClientHtmlFetcher(int timeoutMillis, CrawlerConfig.ParserMode parserMode, int maxBodyBytes) {
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.parserMode = parserMode;
+        this.maxBodyBytes = maxBodyBytes;
+        // HttpClient has no close() before Java 21, shutting down its executor is what stops its threads
+        this.clientExecutor = Executors.newCachedThreadPool(daemonThreads("http-client-"));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(timeout)
+                .executor(clientExecutor)
+                .build();
+        this.parseExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                daemonThreads("html-parser-"));
+    }
+
+    @Override
+    public CompletableFuture<PageContent> fetchContentAsync(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Accept", "text/html,application/xhtml+xml,*/*;q=0.8")
+                .GET()
+                .build();
+
+        return client.sendAsync(request, this::htmlBody)
+                .thenApplyAsync(this::parseResponse, parseExecutor);
+    }
+
+    @Override
+    public PageContent fetchContentFromUrl(String url) throws Exception {
+        try {
+            return fetchContentAsync(url).get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    @Override
+    public Document fetchDocumentFromUrl(String url) throws Exception {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(url)).timeout(timeout).GET().build(),
+                this::htmlBody);
+        checkResponse(response);
+        return parseDocument(response);
+    }
+
+    @Override
+    public void close() {
+        parseExecutor.shutdown();
+        clientExecutor.shutdown();
+    }
+
+    /**
+     * Reads the body only if the response will be parsed. Rejected responses get a null body and fail in
+     * {@link #checkResponse}.
+     */
+    private HttpResponse.BodySubscriber<byte[]> htmlBody(HttpResponse.ResponseInfo info) {
+        try {
+            FetcherUtils.checkResponse(info.statusCode(), info.headers().firstValue("Content-Type").orElse(null), "");
+            return new TruncatingBodySubscriber(maxBodyBytes);
+        } catch (IOException e) {
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+    }
+
+    private PageContent parseResponse(HttpResponse<byte[]> response) {
+        try {
+            checkResponse(response);
+            long start = System.nanoTime();
+            PageContent content;
+            if (parserMode == CrawlerConfig.ParserMode.STREAMING) {
+                try (Reader reader = new InputStreamReader(new ByteArrayInputStream(response.body()),
+                        FetcherUtils.charsetOrUtf8(FetcherUtils.charsetParameter(contentTypeOf(response))))) {
+                    content = StreamingContentExtractor.extract(reader, response.uri().toString());
+                }
+            } else {
+                content = DomContentExtractor.extract(parseDocument(response));
+            }
+            return content.withFetchStats(response.body().length, System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Document parseDocument(HttpResponse<byte[]> response) throws IOException {
+        // Without a header charset jsoup sniffs the BOM and <meta charset>, like Jsoup.connect does
+        String charset = FetcherUtils.charsetParameter(contentTypeOf(response));
+        return Jsoup.parse(new ByteArrayInputStream(response.body()), charset, response.uri().toString());
+    }
+
+    private static void checkResponse(HttpResponse<?> response) throws IOException {
+        FetcherUtils.checkResponse(response.statusCode(), contentTypeOf(response), response.uri().toString());
+    }
+
+    private static String contentTypeOf(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type").orElse(null);
+    }
+
+    private static Exception unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) cause = cause.getCause();
+        return cause instanceof Exception exception ? exception : new IOException(cause);
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Collects the body up to a byte limit, then cancels the rest of the download.
+     */
+    private static class TruncatingBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final int limit;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        TruncatingBodySubscriber(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                int length = Math.min(buffer.remaining(), limit - body.size());
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                body.writeBytes(bytes);
+                if (body.size() >= limit) {
+                    subscription.cancel();
+                    result.complete(body.toByteArray());
+                    return;
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(body.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Scores a task with the number of links to its page seen so far. Every link to an unvisited page enqueues a
+ * task of its own, so the later tasks of a popular page carry higher counts and overtake the earlier ones.
+ * Counts are dropped once a page is claimed to keep the map to the size of the frontier.
+ */
+public class InboundLinkScorer implements LinkScorer {
+
+    private final ConcurrentMap<String, Integer> inboundLinks = new ConcurrentHashMap<>();
+
+    @Override
+    public double score(CrawlTask task) {
+        if (task.getNormalizedUrl() == null) return 0;
+        return inboundLinks.getOrDefault(task.getNormalizedUrl(), 0);
+    }
+
+    @Override
+    public void linkDiscovered(String normalizedUrl) {
+        inboundLinks.merge(normalizedUrl, 1, Integer::sum);
+    }
+
+    @Override
+    public void pageClaimed(String normalizedUrl) {
+        inboundLinks.remove(normalizedUrl);
+    }
+
+    public int getInboundLinks(String normalizedUrl) {
+        return inboundLinks.getOrDefault(normalizedUrl, 0);
+    }
+}
@@ -1,5 +1,8 @@
 package crawler;
 
+import crawler.model.FetchResult;
+import crawler.model.PageContent;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
@@ -7,6 +10,8 @@ import java.io.IOException;
 
 public class JsoupHtmlFetcher implements HtmlFetcher {
 
+    private static final int NOT_MODIFIED = 304;
+
     private final int timeoutMillis;
 
     public JsoupHtmlFetcher(int timeoutMillis) {
@@ -19,4 +24,33 @@ public class JsoupHtmlFetcher implements HtmlFetcher {
                 .timeout(timeoutMillis)
                 .get();
     }
+
+    @Override
+    public PageContent fetchContentFromUrl(String url) throws IOException {
+        return fetchContentIfModified(url, null, null).getContent();
+    }
+
+    @Override
+    public FetchResult fetchContentIfModified(String url, String etag, String lastModified) throws IOException {
+        Connection connection = Jsoup.connect(url).timeout(timeoutMillis);
+        if (etag != null) connection.header("If-None-Match", etag);
+        if (lastModified != null) connection.header("If-Modified-Since", lastModified);
+
+        Connection.Response response = connection.execute();
+        if (response.statusCode() == NOT_MODIFIED) {
+            return FetchResult.notModified();
+        }
+        return new FetchResult(extractContent(response), response.header("ETag"), response.header("Last-Modified"));
+    }
+
+    /**
+     * Parses the body as it is read, the recorded parse time includes reading it.
+     */
+    protected PageContent extractContent(Connection.Response response) throws IOException {
+        CountingInputStream body = new CountingInputStream(response.bodyStream());
+        long start = System.nanoTime();
+        Document document = Jsoup.parse(body, response.charset(), response.url().toExternalForm());
+        PageContent content = DomContentExtractor.extract(document);
+        return content.withFetchStats(body.getCount(), System.nanoTime() - start);
+    }
 }
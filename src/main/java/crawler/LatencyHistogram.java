@@ -0,0 +1,83 @@
+package crawler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, the layout HdrHistogram uses: values below 32 microseconds
+ * get a bucket each, above that every power of two is split into 16 buckets, so any recorded value is off by at
+ * most about 6% while the whole range up to days fits in under a thousand counters.
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(nanos / 1000, 0);
+        counts.incrementAndGet(bucketIndex(micros));
+        count.increment();
+        totalMicros.add(micros);
+        if (micros > maxMicros.get()) {
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : totalMicros.sum() / 1000.0 / recorded;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * @param percentile Between 0 and 100.
+     * @return The upper end of the bucket holding the value at that percentile, capped at the maximum; 0 if
+     * nothing was recorded.
+     */
+    public double getPercentileMillis(double percentile) {
+        long recorded = count.sum();
+        if (recorded == 0) return 0;
+
+        long rank = Math.max((long) Math.ceil(percentile / 100 * recorded), 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    protected static int bucketIndex(long micros) {
+        if (micros < LINEAR_BUCKETS) return (int) micros;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (exponent - 3) * SUB_BUCKETS + (int) (micros >>> shift) - SUB_BUCKETS;
+    }
+
+    protected static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) return index;
+
+        int exponent = index / SUB_BUCKETS + 3;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
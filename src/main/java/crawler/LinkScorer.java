@@ -0,0 +1,65 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+
+import java.util.List;
+
+/**
+ * Ranks waiting tasks of the same depth, the frontier hands out higher scores first.
+ * Implementations must be safe for concurrent use.
+ */
+public interface LinkScorer {
+    LinkScorer NONE = task -> 0;
+
+    /**
+     * Called once when the task enters the frontier, the score is not updated while it waits.
+     */
+    double score(CrawlTask task);
+
+    /**
+     * Called for every link to a page that is not visited yet, before its task is enqueued.
+     *
+     * @param normalizedUrl The URL in the form produced by {@link UrlCanonicalizer#canonicalForm(UrlCanonicalizer.Parts)}.
+     */
+    default void linkDiscovered(String normalizedUrl) {
+    }
+
+    /**
+     * Called when a worker claims the page, no more tasks are scored for it after that.
+     */
+    default void pageClaimed(String normalizedUrl) {
+    }
+
+    /**
+     * Scores a task with the sum of the given scorers.
+     */
+    static LinkScorer sum(List<LinkScorer> scorers) {
+        if (scorers.isEmpty()) return NONE;
+        if (scorers.size() == 1) return scorers.get(0);
+
+        return new LinkScorer() {
+            @Override
+            public double score(CrawlTask task) {
+                double score = 0;
+                for (LinkScorer scorer : scorers) {
+                    score += scorer.score(task);
+                }
+                return score;
+            }
+
+            @Override
+            public void linkDiscovered(String normalizedUrl) {
+                for (LinkScorer scorer : scorers) {
+                    scorer.linkDiscovered(normalizedUrl);
+                }
+            }
+
+            @Override
+            public void pageClaimed(String normalizedUrl) {
+                for (LinkScorer scorer : scorers) {
+                    scorer.pageClaimed(normalizedUrl);
+                }
+            }
+        };
+    }
+}
@@ -2,25 +2,52 @@ package crawler;
 
 import crawler.model.CrawledPage;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Array;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
 
     public static void main(String[] args) {
         if (args.length < 3) {
-            System.out.println("Usage: java -jar crawler.jar <StartURL1,StartURL2> <depth> <domain1,domain2,...>");
+            System.out.println("Usage: java -jar crawler.jar <StartURL1,StartURL2> <depth> <domain1,domain2,...> [options]");
+            System.out.println("Options: --virtual-threads --threads=<n> --max-in-flight=<n> --host-rate=<requests/s> --host-connections=<n>");
+            System.out.println("         --visited-set=<exact|fingerprint> --expected-urls=<n> --bloom-filter --bloom-fpp=<rate>");
+            System.out.println("         --streaming-report --parser=<dom|streaming> --async-fetch --connection-pool --idle-timeout=<seconds>");
+            System.out.println("         --cache-dir=<path> --cache-size-mb=<n> --state-file=<path> --incremental");
+            System.out.println("         --checkpoint=<path> --checkpoint-interval=<seconds> --resume --frontier-memory=<n>");
+            System.out.println("         --time-limit=<seconds> --max-pages=<n>");
+            System.out.println("         --log-level=<debug|info|warn|error> --metrics-interval=<seconds> --metrics-file=<path>");
+            System.out.println("         --inbound-link-score --url-weight=<regex>:<weight>");
+            System.out.println("         --content-dedup=<off|exact|near> --simhash-distance=<bits>");
+            System.out.println("         --strip-params=<param1,prefix*,...> --url-rule=<domain>:<drop-query|keep=<params>|strip=<params>>");
             return;
         }
 
         CrawlerConfig config = buildConfigFromArgs(args);
         if (config == null) return;
 
-        List<CrawledPage> results = runCrawl(config);
-        writeReport(results, config);
+        HtmlFetcher fetcher = createFetcher(config);
+        if (fetcher == null) return;
+
+        try {
+            if (config.isStreamingReport()) {
+                runStreamingCrawl(config, fetcher);
+                return;
+            }
+
+            List<CrawledPage> results = runCrawl(config, fetcher);
+            writeReport(results, config);
+        } finally {
+            closeFetcher(fetcher);
+        }
     }
 
     protected static CrawlerConfig buildConfigFromArgs(String[] args) {
@@ -35,6 +62,7 @@ public class Main {
 
         try {
             CrawlerConfig config = new CrawlerConfig(startUrls, maxDepth, allowedDomains);
+            applyOptions(config, Arrays.copyOfRange(args, 3, args.length));
             System.out.println("Configuration loaded: " + config);
             return config;
         } catch (IllegalArgumentException e) {
@@ -43,6 +71,122 @@ public class Main {
         }
     }
 
+    protected static void applyOptions(CrawlerConfig config, String[] options) throws IllegalArgumentException {
+        for (String option : options) {
+            String[] parts = option.trim().split("=", 2);
+            String value = parts.length > 1 ? parts[1].trim() : "";
+            switch (parts[0]) {
+                case "--virtual-threads" -> config.setExecutorMode(CrawlerConfig.ExecutorMode.VIRTUAL_THREADS);
+                case "--threads" -> config.setThreadPoolSize(parseOptionInt(parts[0], value));
+                case "--max-in-flight" -> config.setMaxInFlightRequests(parseOptionInt(parts[0], value));
+                case "--host-rate" -> config.setRequestsPerSecondPerHost(parseOptionDouble(parts[0], value));
+                case "--host-connections" -> config.setMaxConnectionsPerHost(parseOptionInt(parts[0], value));
+                case "--visited-set" -> config.setVisitedSetType(parseOptionEnum(parts[0], value, CrawlerConfig.VisitedSetType.class));
+                case "--expected-urls" -> config.setExpectedUrlCount(parseOptionLong(parts[0], value));
+                case "--bloom-filter" -> config.setBloomFilterEnabled(true);
+                case "--bloom-fpp" -> config.setBloomFilterFalsePositiveRate(parseOptionDouble(parts[0], value));
+                case "--streaming-report" -> config.setStreamingReport(true);
+                case "--parser" -> config.setParserMode(parseOptionEnum(parts[0], value, CrawlerConfig.ParserMode.class));
+                case "--async-fetch" -> config.setAsyncFetch(true);
+                case "--connection-pool" -> config.setConnectionPooling(true);
+                case "--idle-timeout" -> config.setConnectionIdleTimeoutSeconds(parseOptionInt(parts[0], value));
+                case "--cache-dir" -> config.setCacheDirectory(parseOptionPath(parts[0], value));
+                case "--cache-size-mb" -> config.setCacheSizeMb(parseOptionInt(parts[0], value));
+                case "--state-file" -> config.setStateFile(parseOptionPath(parts[0], value));
+                case "--incremental" -> config.setIncremental(true);
+                case "--checkpoint" -> config.setCheckpointFile(parseOptionPath(parts[0], value));
+                case "--checkpoint-interval" -> config.setCheckpointIntervalSeconds(parseOptionInt(parts[0], value));
+                case "--resume" -> config.setResume(true);
+                case "--frontier-memory" -> config.setFrontierMemoryLimit(parseOptionInt(parts[0], value));
+                case "--time-limit" -> config.setTimeLimitSeconds(parseOptionInt(parts[0], value));
+                case "--max-pages" -> config.setMaxPages(parseOptionInt(parts[0], value));
+                case "--log-level" -> config.setLogLevel(parseOptionEnum(parts[0], value, CrawlerConfig.LogLevel.class));
+                case "--metrics-interval" -> config.setMetricsIntervalSeconds(parseOptionInt(parts[0], value));
+                case "--metrics-file" -> config.setMetricsFile(parseOptionPath(parts[0], value));
+                case "--inbound-link-score" -> config.setInboundLinkScoring(true);
+                case "--url-weight" -> addUrlPatternWeight(config, parts[0], value);
+                case "--content-dedup" -> config.setContentDedup(parseOptionEnum(parts[0], value, CrawlerConfig.ContentDedup.class));
+                case "--simhash-distance" -> config.setSimHashDistance(parseOptionInt(parts[0], value));
+                case "--strip-params" -> config.setStrippedQueryParams(parseOptionList(value));
+                case "--url-rule" -> config.addUrlRule(value);
+                default -> throw new IllegalArgumentException("unknown option " + option);
+            }
+        }
+        if (config.isAsyncFetch() && config.isConnectionPooling()) {
+            throw new IllegalArgumentException("--async-fetch and --connection-pool cannot be combined, "
+                    + "the async fetcher already pools its connections");
+        }
+        if (config.isAsyncFetch() && config.getCacheDirectory() != null) {
+            throw new IllegalArgumentException("--cache-dir is not supported with --async-fetch");
+        }
+        if (config.isIncremental() && config.getStateFile() == null) {
+            throw new IllegalArgumentException("--incremental needs --state-file to load the previous crawl from");
+        }
+        if (config.isIncremental() && config.getCacheDirectory() == null) {
+            throw new IllegalArgumentException("--incremental needs --cache-dir, without it every known page is downloaded again");
+        }
+        if (config.isResume() && config.getCheckpointFile() == null) {
+            throw new IllegalArgumentException("--resume needs --checkpoint to resume from");
+        }
+    }
+
+    private static void addUrlPatternWeight(CrawlerConfig config, String option, String value) throws IllegalArgumentException {
+        // The weight follows the last colon, the pattern itself may contain colons
+        int separator = value.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("option " + option + " expects <regex>:<weight> but got '" + value + "'");
+        }
+        config.addUrlPatternWeight(value.substring(0, separator), parseOptionDouble(option, value.substring(separator + 1)));
+    }
+
+    private static List<String> parseOptionList(String value) {
+        List<String> values = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) values.add(item.trim());
+        }
+        return values;
+    }
+
+    private static String parseOptionPath(String option, String value) throws IllegalArgumentException {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("option " + option + " expects a path");
+        }
+        return value;
+    }
+
+    private static int parseOptionInt(String option, String value) throws IllegalArgumentException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("option " + option + " expects a number but got '" + value + "'");
+        }
+    }
+
+    private static long parseOptionLong(String option, String value) throws IllegalArgumentException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("option " + option + " expects a number but got '" + value + "'");
+        }
+    }
+
+    private static double parseOptionDouble(String option, String value) throws IllegalArgumentException {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("option " + option + " expects a number but got '" + value + "'");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseOptionEnum(String option, String value, Class<E> type) throws IllegalArgumentException {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("option " + option + " expects one of "
+                    + Arrays.toString(type.getEnumConstants()).toLowerCase() + " but got '" + value + "'");
+        }
+    }
+
     protected static ArrayList<URL> parseStartUrls(String urlArg) {
         if (urlArg == null || urlArg.isBlank()) {
             System.out.println("No start URLs provided.");
@@ -106,15 +250,184 @@ public class Main {
         return domains;
     }
 
-    protected static List<CrawledPage> runCrawl(CrawlerConfig config) {
+    protected static List<CrawledPage> runCrawl(CrawlerConfig config, HtmlFetcher fetcher) {
         System.out.println("Starting crawl from: " + config.getStartUrls());
 
-        WebCrawler crawler = new WebCrawler(config, new PageProcessor(new JsoupHtmlFetcher(5000)));
-        return crawler.crawl();
+        WebCrawler crawler = createCrawler(config, fetcher);
+        return crawlAndSaveState(crawler, config, fetcher);
+    }
+
+    protected static void runStreamingCrawl(CrawlerConfig config, HtmlFetcher fetcher) {
+        System.out.println("Starting crawl from: " + config.getStartUrls());
+
+        try (StreamingReportWriter writer = new StreamingReportWriter(Files.createTempFile("crawl-", ".spill"),
+                config.getUrlCanonicalizer())) {
+            WebCrawler crawler = createCrawler(config, fetcher);
+            crawler.setPageSpill(writer);
+            List<CrawledPage> results = crawlAndSaveState(crawler, config, fetcher);
+
+            writer.write(results, "report.md", config.getStartUrls());
+            System.out.println("Report written to report.md");
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error writing report: " + e.getMessage());
+        }
+    }
+
+    private static List<CrawledPage> crawlAndSaveState(WebCrawler crawler, CrawlerConfig config, HtmlFetcher fetcher) {
+        loadCrawlState(crawler, config);
+        CheckpointLog checkpoint = openCheckpoint(crawler, config);
+        List<CrawledPage> results = crawler.crawl();
+        closeCheckpoint(checkpoint, config, crawler.isStoppedEarly());
+        printFetcherStats(fetcher);
+        saveCrawlState(results, config);
+        return results;
+    }
+
+    private static WebCrawler createCrawler(CrawlerConfig config, HtmlFetcher fetcher) {
+        return new WebCrawler(config, new PageProcessor(fetcher, new CrawlMetrics()));
+    }
+
+    /**
+     * @return The fetcher for the configured mode, or null if the page cache could not be opened.
+     */
+    protected static HtmlFetcher createFetcher(CrawlerConfig config) {
+        HtmlFetcher fetcher = createNetworkFetcher(config);
+        if (config.getCacheDirectory() == null) return fetcher;
+
+        try {
+            PageCache cache = new PageCache(Path.of(config.getCacheDirectory()), config.getCacheSizeMb() * 1024L * 1024L);
+            return new CachingHtmlFetcher(fetcher, cache, config.getUrlCanonicalizer());
+        } catch (IOException e) {
+            System.out.println("Could not open page cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static HtmlFetcher createNetworkFetcher(CrawlerConfig config) {
+        if (config.isAsyncFetch()) {
+            return new HttpClientHtmlFetcher(5000, config.getParserMode());
+        }
+        if (config.isConnectionPooling()) {
+            return new PooledHtmlFetcher(5000, config.getMaxConnectionsPerHost(),
+                    TimeUnit.SECONDS.toMillis(config.getConnectionIdleTimeoutSeconds()), config.getParserMode());
+        }
+        return config.getParserMode() == CrawlerConfig.ParserMode.STREAMING
+                ? new StreamingHtmlFetcher(5000)
+                : new JsoupHtmlFetcher(5000);
+    }
+
+    private static void loadCrawlState(WebCrawler crawler, CrawlerConfig config) {
+        if (config.getStateFile() == null) return;
+        crawler.setRetainLinks(true);
+        if (!config.isIncremental()) return;
+
+        Path file = Path.of(config.getStateFile());
+        if (!Files.exists(file)) {
+            System.out.println("No previous crawl at " + file + ", crawling everything.");
+            return;
+        }
+        try {
+            List<CrawledPage> previous = CrawlGraphStore.load(file, config);
+            if (previous == null) {
+                System.out.println("Previous crawl used different start URLs, depth, domains or URL rules, crawling everything.");
+                return;
+            }
+            crawler.setPreviousCrawl(previous);
+            System.out.println("Loaded " + previous.size() + " pages of the previous crawl");
+        } catch (IOException e) {
+            System.out.println("Could not load previous crawl, crawling everything: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return The log the crawl is recorded in, or null if checkpointing is off or the log could not be opened.
+     */
+    private static CheckpointLog openCheckpoint(WebCrawler crawler, CrawlerConfig config) {
+        if (config.getCheckpointFile() == null) return null;
+
+        Path file = Path.of(config.getCheckpointFile());
+        long intervalMillis = TimeUnit.SECONDS.toMillis(config.getCheckpointIntervalSeconds());
+        try {
+            CheckpointLog.Recovered recovered = config.isResume() ? recoverCheckpoint(file, config) : null;
+            CheckpointLog checkpoint;
+            if (recovered == null) {
+                checkpoint = CheckpointLog.create(file, config, intervalMillis);
+            } else {
+                crawler.resumeFrom(recovered);
+                checkpoint = CheckpointLog.append(file, config, recovered, intervalMillis);
+            }
+            crawler.setCheckpoint(checkpoint);
+            return checkpoint;
+        } catch (IOException e) {
+            System.out.println("Could not open checkpoint, crawling without one: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static CheckpointLog.Recovered recoverCheckpoint(Path file, CrawlerConfig config) throws IOException {
+        if (!Files.exists(file)) {
+            System.out.println("No checkpoint at " + file + ", starting a new crawl.");
+            return null;
+        }
+        CheckpointLog.Recovered recovered = CheckpointLog.recover(file, config);
+        if (recovered == null) {
+            System.out.println("Checkpoint was written for different start URLs, depth, domains or URL rules, starting a new crawl.");
+        }
+        return recovered;
+    }
+
+    private static void closeCheckpoint(CheckpointLog checkpoint, CrawlerConfig config, boolean stoppedEarly) {
+        if (checkpoint == null) return;
+
+        try {
+            checkpoint.close();
+            if (stoppedEarly) {
+                System.out.println("Checkpoint kept, continue the crawl with --resume");
+                return;
+            }
+            // The crawl finished, there is nothing left to resume
+            Files.deleteIfExists(Path.of(config.getCheckpointFile()));
+        } catch (IOException e) {
+            System.out.println("Could not close checkpoint: " + e.getMessage());
+        }
+    }
+
+    private static void saveCrawlState(List<CrawledPage> results, CrawlerConfig config) {
+        if (config.getStateFile() == null) return;
+
+        try {
+            CrawlGraphStore.save(Path.of(config.getStateFile()), config, results);
+        } catch (IOException e) {
+            System.out.println("Could not save crawl state: " + e.getMessage());
+        }
+    }
+
+    private static void printFetcherStats(HtmlFetcher fetcher) {
+        if (fetcher instanceof CachingHtmlFetcher caching) {
+            System.out.println("Cache: " + caching);
+            if (caching.getCache().getLastFailure() != null) {
+                System.out.println("Last cache failure: " + caching.getCache().getLastFailure().getMessage());
+            }
+            fetcher = caching.getDelegate();
+        }
+        if (fetcher instanceof PooledHtmlFetcher pooled) {
+            System.out.println("Connections: " + pooled.getMetrics());
+        }
+    }
+
+    private static void closeFetcher(HtmlFetcher fetcher) {
+        if (fetcher instanceof CachingHtmlFetcher caching) fetcher = caching.getDelegate();
+        if (!(fetcher instanceof Closeable closeable)) return;
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            System.out.println("Could not close fetcher: " + e.getMessage());
+        }
     }
 
     protected static void writeReport(List<CrawledPage> results, CrawlerConfig config) {
-        MarkdownWriter writer = new MarkdownWriter();
+        MarkdownWriter writer = new MarkdownWriter(config.getUrlCanonicalizer());
         try {
             writer.write(results, "report.md", config.getStartUrls());
             System.out.println("Report written to report.md");
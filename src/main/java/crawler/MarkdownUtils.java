@@ -2,20 +2,26 @@ package crawler;
 
 import crawler.model.CrawledPage;
 
+import java.net.URL;
 import java.util.*;
 
 public class MarkdownUtils {
 
     protected static Set<String> extractUniqueLinks(CrawledPage page) {
+        return extractUniqueLinks(page, UrlCanonicalizer.DEFAULT);
+    }
+
+    protected static Set<String> extractUniqueLinks(CrawledPage page, UrlCanonicalizer canonicalizer) {
         Set<String> uniqueLinks = new LinkedHashSet<>();
         if (page.getLinks() == null || page.getLinks().isEmpty()) return uniqueLinks;
 
-        String currentPageURLNormalized = normalizeUrl(page.getUrl());
+        String currentPageURLNormalized = canonicalizer.canonicalize(page.getUrl());
         Set<String> seenNormalized = new HashSet<>();
 
         for (String link : page.getLinks()) {
             if (link == null || link.isBlank()) continue;
-            String normalized = normalizeUrl(link);
+            String normalized = canonicalizer.canonicalize(link);
+            if (normalized.isEmpty()) continue;
             if (!normalized.equals(currentPageURLNormalized) && seenNormalized.add(normalized)) {
                 uniqueLinks.add(normalized);
             }
@@ -24,18 +30,54 @@ public class MarkdownUtils {
     }
 
     protected static boolean isLinkBroken(String link, List<CrawledPage> pages) {
-        // We iterate over all pages in the list, and check if the link points to any of them
-        // If it does, then we return whether or not that page is broken
+        return isLinkBroken(link, indexBrokenPages(pages, UrlCanonicalizer.DEFAULT), UrlCanonicalizer.DEFAULT);
+    }
+
+    protected static boolean isLinkBroken(String link, Set<String> brokenUrls, UrlCanonicalizer canonicalizer) {
         // This can only return true for pages that have been crawled, all uncrawled pages are always returned as not broken
-        return pages.stream()
-                .filter(p -> p.getUrl().equals(link))
-                .anyMatch(CrawledPage::isBroken);
+        return brokenUrls.contains(canonicalizer.canonicalize(link));
+    }
+
+    /**
+     * Collects the normalized URLs of all broken pages once, so each link lookup is a hash lookup
+     * instead of a scan over every crawled page.
+     */
+    protected static Set<String> indexBrokenPages(List<CrawledPage> pages, UrlCanonicalizer canonicalizer) {
+        Set<String> brokenUrls = new HashSet<>();
+        for (CrawledPage page : pages) {
+            if (page.isBroken()) {
+                brokenUrls.add(canonicalizer.canonicalize(page.getUrl()));
+            }
+        }
+        return brokenUrls;
+    }
+
+    /**
+     * Splits the pages by the start URLs they were reached from in a single pass, each group sorted by depth.
+     * Keyed by the URL string because {@link URL#hashCode()} may resolve the host.
+     */
+    protected static Map<String, List<CrawledPage>> groupByStartUrl(List<CrawledPage> pages, List<URL> startUrls) {
+        Map<String, List<CrawledPage>> pagesByRoot = new LinkedHashMap<>();
+        for (URL root : startUrls) {
+            pagesByRoot.put(root.toExternalForm(), new ArrayList<>());
+        }
+        for (CrawledPage page : pages) {
+            for (URL root : page.getFromStartUrls()) {
+                List<CrawledPage> forRoot = pagesByRoot.get(root.toExternalForm());
+                if (forRoot != null) forRoot.add(page);
+            }
+        }
+        for (List<CrawledPage> forRoot : pagesByRoot.values()) {
+            forRoot.sort(Comparator.comparingInt(CrawledPage::getDepth));
+        }
+        return pagesByRoot;
     }
 
+    /**
+     * Canonical form under the default rules; the report writers use the canonicalizer of the crawl instead.
+     */
     protected static String normalizeUrl(String url) {
-        if (url == null) return "";
-        int hashIndex = url.indexOf('#');
-        return hashIndex >= 0 ? url.substring(0, hashIndex).replaceAll("/$", "") : url.replaceAll("/$", "");
+        return UrlCanonicalizer.DEFAULT.canonicalize(url);
     }
 
     protected static String indent(int depth) {
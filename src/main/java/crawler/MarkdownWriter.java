@@ -2,64 +2,88 @@ package crawler;
 
 import crawler.model.CrawledPage;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 public class MarkdownWriter {
 
+    private final UrlCanonicalizer canonicalizer;
+
+    public MarkdownWriter() {
+        this(UrlCanonicalizer.DEFAULT);
+    }
+
+    /**
+     * @param canonicalizer The crawl's canonicalizer, links are listed and matched to broken pages in its form.
+     */
+    public MarkdownWriter(UrlCanonicalizer canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
     protected void write(List<CrawledPage> pages, String filename, List<URL> startUrls) throws IOException {
-        try (FileWriter writer = new FileWriter(filename)) {
-            writer.write("# Crawled Website Report\n\n");
+        try (Writer writer = Files.newBufferedWriter(Path.of(filename), StandardCharsets.UTF_8)) {
+            writeTitle(writer);
 
-            for (URL root : startUrls) {
-                writer.write(String.format("## Results for: %s\n\n", root));
+            Set<String> brokenUrls = MarkdownUtils.indexBrokenPages(pages, canonicalizer);
+            Map<String, List<CrawledPage>> pagesByRoot = MarkdownUtils.groupByStartUrl(pages, startUrls);
 
-                List<CrawledPage> forRoot = pages.stream()
-                        .filter(p -> p.getFromStartUrls().contains(root))
-                        .sorted(Comparator.comparingInt(CrawledPage::getDepth))
-                        .toList();
+            for (URL root : startUrls) {
+                writeRootHeader(writer, root);
 
-                for (CrawledPage page : forRoot) {
-                    writePage(writer, page, forRoot);
-                    writer.write("\n");
+                for (CrawledPage page : pagesByRoot.get(root.toExternalForm())) {
+                    writePage(writer, page, brokenUrls);
                 }
             }
         }
     }
 
-    private void writePage(FileWriter writer, CrawledPage page, List<CrawledPage> allPages) throws IOException {
+    protected void writeTitle(Writer writer) throws IOException {
+        writer.write("# Crawled Website Report\n\n");
+    }
+
+    protected void writeRootHeader(Writer writer, URL root) throws IOException {
+        writer.append("## Results for: ").append(root.toString()).append("\n\n");
+    }
+
+    protected void writePage(Writer writer, CrawledPage page, Set<String> brokenUrls) throws IOException {
         String indent = MarkdownUtils.indent(page.getDepth());
         String arrow = "→".repeat(Math.max(1, page.getDepth()));
 
-        writer.write(String.format("%s### %s %s\n", indent, arrow, page.getUrl()));
-        writer.write(String.format("%s- [%s] Page %s\n", indent,
-                page.isBroken() ? "✗" : "✓",
-                page.isBroken() ? "could not be loaded" : "loaded successfully"));
+        writer.append(indent).append("### ").append(arrow).append(' ').append(page.getUrl()).append('\n');
+        writer.append(indent).append("- [").append(page.isBroken() ? "✗" : "✓").append("] Page ")
+                .append(page.isBroken() ? "could not be loaded" : "loaded successfully").append('\n');
+        if (page.getDuplicateOf() != null) {
+            writer.append(indent).append("- Duplicate of ").append(page.getDuplicateOf()).append(", links not followed\n");
+        }
 
         writeHeadings(writer, page.getHeadings(), indent);
-        writeLinks(writer, page, allPages, indent);
+        writeLinks(writer, page, brokenUrls, indent);
+        writer.write("\n");
     }
 
-    private void writeHeadings(FileWriter writer, List<String> headings, String indent) throws IOException {
+    private void writeHeadings(Writer writer, List<String> headings, String indent) throws IOException {
         if (headings == null || headings.isEmpty()) return;
 
-        writer.write(String.format("%s- Headings:\n", indent));
+        writer.append(indent).append("- Headings:\n");
         for (String heading : headings) {
-            writer.write(String.format("%s  - %s\n", indent, heading));
+            writer.append(indent).append("  - ").append(heading).append('\n');
         }
     }
 
-    private void writeLinks(FileWriter writer, CrawledPage page, List<CrawledPage> allPages, String indent) throws IOException {
-        Set<String> uniqueLinks = MarkdownUtils.extractUniqueLinks(page);
+    private void writeLinks(Writer writer, CrawledPage page, Set<String> brokenUrls, String indent) throws IOException {
+        Set<String> uniqueLinks = MarkdownUtils.extractUniqueLinks(page, canonicalizer);
         if (uniqueLinks.isEmpty()) return;
 
-        writer.write(String.format("%s- Links:\n", indent));
+        writer.append(indent).append("- Links:\n");
         for (String link : uniqueLinks) {
-            boolean broken = MarkdownUtils.isLinkBroken(link, allPages);
-            writer.write(String.format("%s  - [%s](%s)%s\n", indent,
-                    link, link, broken ? " ❌ broken" : ""));
+            boolean broken = MarkdownUtils.isLinkBroken(link, brokenUrls, canonicalizer);
+            writer.append(indent).append("  - [").append(link).append("](").append(link).append(')')
+                    .append(broken ? " ❌ broken" : "").append('\n');
         }
     }
 }
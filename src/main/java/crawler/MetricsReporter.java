@@ -0,0 +1,61 @@
+package crawler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs a summary line of the {@link CrawlMetrics} and rewrites the JSON snapshot on a fixed interval, and once
+ * more when the crawl ends.
+ */
+public class MetricsReporter {
+
+    private final CrawlMetrics metrics;
+    private final AsyncLogger logger;
+    private final Path snapshotFile;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param intervalSeconds 0 to only report when the crawl ends.
+     * @param snapshotFile    File for the JSON snapshot, or null for the summary line only.
+     */
+    public MetricsReporter(CrawlMetrics metrics, AsyncLogger logger, int intervalSeconds, Path snapshotFile) {
+        this.metrics = metrics;
+        this.logger = logger;
+        this.snapshotFile = snapshotFile;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (intervalSeconds > 0) {
+            scheduler.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the periodic reports and writes the final one.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+    }
+
+    private void report() {
+        logger.info("Metrics: %s", metrics.summaryLine());
+        if (snapshotFile == null) return;
+
+        try {
+            metrics.writeSnapshot(snapshotFile);
+        } catch (IOException e) {
+            logger.warn("Could not write metrics snapshot %s: %s", snapshotFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package crawler;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * On-disk cache of extracted page content and the validators needed to revalidate it, one small file per
+ * normalized URL. Total size is bounded: when a store pushes the cache over its limit, the least recently
+ * used entries are deleted. Recency survives restarts through the files' modification times.
+ * The cache is best effort, entries that cannot be read or written are treated as missing.
+ */
+public class PageCache {
+
+    private static final int ENTRY_VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".page";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile IOException lastFailure;
+
+    public PageCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+
+    public Entry get(String normalizedUrl) {
+        String fileName = fileNameFor(normalizedUrl);
+        synchronized (this) {
+            if (entrySizes.get(fileName) == null) return null;
+        }
+
+        Path file = directory.resolve(fileName);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Entry entry = readEntry(in);
+            // Different URLs can share a file name, the stored URL decides
+            if (!entry.getUrl().equals(normalizedUrl)) return null;
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return entry;
+        } catch (IOException e) {
+            remove(normalizedUrl);
+            return null;
+        }
+    }
+
+    public void put(String normalizedUrl, Entry entry) {
+        String fileName = fileNameFor(normalizedUrl);
+        try {
+            Path temp = Files.createTempFile(directory, fileName, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                writeEntry(out, entry);
+            }
+            long size = Files.size(temp);
+            Files.move(temp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (this) {
+                Long previous = entrySizes.put(fileName, size);
+                totalBytes += size - (previous == null ? 0 : previous);
+                evictIfNeeded();
+            }
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    public void remove(String normalizedUrl) {
+        String fileName = fileNameFor(normalizedUrl);
+        synchronized (this) {
+            Long size = entrySizes.remove(fileName);
+            if (size == null) return;
+            totalBytes -= size;
+            deleteQuietly(directory.resolve(fileName));
+        }
+    }
+
+    public synchronized int size() {
+        return entrySizes.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of entries that could not be written or deleted; the cache goes on without them.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return The most recent write or delete failure, or null if there was none.
+     */
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    private void recordFailure(IOException e) {
+        failures.increment();
+        lastFailure = e;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> leastRecentlyUsed = entrySizes.entrySet().iterator();
+        while (totalBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            Map.Entry<String, Long> eldest = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            totalBytes -= eldest.getValue();
+            deleteQuietly(directory.resolve(eldest.getKey()));
+            evictions.increment();
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(ENTRY_SUFFIX)) {
+                    files.add(file);
+                } else if (name.endsWith(".tmp")) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+
+        Map<Path, FileTime> accessTimes = new HashMap<>();
+        for (Path file : files) {
+            accessTimes.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(accessTimes::get));
+        for (Path file : files) {
+            long size = Files.size(file);
+            entrySizes.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+        evictIfNeeded();
+    }
+
+    private static String fileNameFor(String normalizedUrl) {
+        return String.format("%016x", FingerprintUtils.hash64(normalizedUrl)) + ENTRY_SUFFIX;
+    }
+
+    private static void writeEntry(DataOutput out, Entry entry) throws IOException {
+        out.writeByte(ENTRY_VERSION);
+        CrawledPageCodec.writeString(out, entry.getUrl());
+        CrawledPageCodec.writeString(out, entry.getEtag());
+        CrawledPageCodec.writeString(out, entry.getLastModified());
+        CrawledPageCodec.writeStrings(out, entry.getHeadings());
+        CrawledPageCodec.writeStrings(out, entry.getLinks());
+    }
+
+    private static Entry readEntry(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != ENTRY_VERSION) {
+            throw new IOException("Unsupported cache entry version " + version);
+        }
+        return new Entry(CrawledPageCodec.readString(in), CrawledPageCodec.readString(in), CrawledPageCodec.readString(in),
+                CrawledPageCodec.readStrings(in), CrawledPageCodec.readStrings(in));
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    public static class Entry {
+        private final String url;
+        private final String etag;
+        private final String lastModified;
+        private final List<String> headings;
+        private final List<String> links;
+
+        public Entry(String url, String etag, String lastModified, List<String> headings, List<String> links) {
+            this.url = url;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.headings = headings;
+            this.links = links;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public List<String> getHeadings() {
+            return headings;
+        }
+
+        public List<String> getLinks() {
+            return links;
+        }
+    }
+}
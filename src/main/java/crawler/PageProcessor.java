@@ -1,58 +1,84 @@
 package crawler;
 
 import crawler.model.CrawledPage;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import crawler.model.PageContent;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class PageProcessor {
 
     private final HtmlFetcher fetcher;
-    private final int htmlNumberOfHeadings = 6;
+    private final CrawlMetrics metrics;
 
     public PageProcessor(HtmlFetcher fetcher) {
+        this(fetcher, new CrawlMetrics());
+    }
+
+    /**
+     * @param metrics Registry for fetch latency, parse time, bytes and errors; the crawler reports into the same one.
+     */
+    public PageProcessor(HtmlFetcher fetcher, CrawlMetrics metrics) {
         this.fetcher = fetcher;
+        this.metrics = metrics;
     }
 
     public CrawledPage processPage(String url, int depth) {
         CrawledPage page = new CrawledPage(url, depth, new ArrayList<>(), new ArrayList<>(), false);
+        long start = System.nanoTime();
         try {
-            Document document = fetcher.fetchDocumentFromUrl(url);
-            page.setHeadings(extractHeadings(document));
-            page.setLinks(extractLinks(document));
+            PageContent content = fetcher.fetchContentFromUrl(url);
+            recordFetched(content, start);
+            applyContent(page, content);
         } catch (Exception e) {
+            metrics.recordFetchError(WebCrawlerUtils.extractHost(url), System.nanoTime() - start);
             page.setBroken(true);
         }
 
         return page;
     }
 
-    private List<String> extractHeadings(Document document) {
-        List<String> headings = new ArrayList<>();
-        for (int i = 1; i <= htmlNumberOfHeadings; i++) {
-            Elements headerElements = document.select("h" + i);
-            for (Element header : headerElements) {
-                String text = header.text().trim();
-                if (!text.isEmpty()) {
-                    headings.add(text);
-                }
-            }
+    /**
+     * Like {@link #processPage} but does not wait for the network when the fetcher is an {@link AsyncHtmlFetcher}.
+     * Otherwise the page is processed on the calling thread and an already completed future is returned.
+     * The future never completes exceptionally, failed pages are marked broken.
+     */
+    public CompletableFuture<CrawledPage> processPageAsync(String url, int depth) {
+        if (!(fetcher instanceof AsyncHtmlFetcher asyncFetcher)) {
+            return CompletableFuture.completedFuture(processPage(url, depth));
         }
-        return headings;
-    }
 
-    private List<String> extractLinks(Document document) {
-        List<String> links = new ArrayList<>();
-        Elements anchors = document.select("a[href]");
-        for (Element anchor : anchors) {
-            String href = anchor.attr("abs:href").trim().toLowerCase();
-            if (!href.isEmpty()) {
-                links.add(href);
-            }
+        long start = System.nanoTime();
+        CompletableFuture<PageContent> content;
+        try {
+            content = asyncFetcher.fetchContentAsync(url);
+        } catch (RuntimeException e) {
+            content = CompletableFuture.failedFuture(e);
         }
-        return links;
+        return content.handle((fetched, error) -> {
+            CrawledPage page = new CrawledPage(url, depth, new ArrayList<>(), new ArrayList<>(), false);
+            if (error != null) {
+                metrics.recordFetchError(WebCrawlerUtils.extractHost(url), System.nanoTime() - start);
+                page.setBroken(true);
+            } else {
+                recordFetched(fetched, start);
+                applyContent(page, fetched);
+            }
+            return page;
+        });
+    }
+
+    public CrawlMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void recordFetched(PageContent content, long startNanos) {
+        long total = System.nanoTime() - startNanos;
+        metrics.recordPage(total - content.getParseNanos(), content.getParseNanos(), content.getBytesRead());
+    }
+
+    private void applyContent(CrawledPage page, PageContent content) {
+        page.setHeadings(content.getHeadings());
+        page.setLinks(content.getLinks());
     }
 }
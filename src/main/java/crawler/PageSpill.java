@@ -0,0 +1,26 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Takes finished pages off the crawler's hands, which then drops their headings and links from memory.
+ * Implementations must be safe for concurrent use.
+ */
+public interface PageSpill extends Consumer<CrawledPage> {
+
+    /**
+     * Reads back the links of a page handed to {@link #accept} before, so the page can be expanded again when
+     * a shorter path to it turns up. Spills that can not read pages back return null.
+     *
+     * @param url The page's URL as spilled.
+     * @return The page's links, or null if they are not available.
+     * @throws IOException If reading the spill fails.
+     */
+    default List<String> readLinks(String url) throws IOException {
+        return null;
+    }
+}
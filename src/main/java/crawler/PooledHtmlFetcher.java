@@ -0,0 +1,172 @@
+package crawler;
+
+import crawler.model.FetchResult;
+import crawler.model.PageContent;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches pages over kept-alive connections with one OkHttp connection pool per host, so a host's TLS
+ * handshake is paid once rather than per page. Each pool keeps at most {@code maxIdleConnectionsPerHost}
+ * idle connections and closes them after the idle timeout; how many are open at once is already bounded by
+ * the crawler's per-host connection limit. All pools share the base client's dispatcher and settings.
+ * A host that has not been requested for the idle timeout has no open connections left, so its pool is
+ * dropped as well and made again if the host comes back; crawls over many hosts only keep pools for the
+ * hosts they are currently working on.
+ */
+public class PooledHtmlFetcher implements HtmlFetcher, Closeable {
+
+    private static final int NOT_MODIFIED = 304;
+
+    private final OkHttpClient baseClient;
+    private final int maxIdleConnectionsPerHost;
+    private final long idleTimeoutMillis;
+    private final CrawlerConfig.ParserMode parserMode;
+    private final ConnectionMetrics metrics = new ConnectionMetrics();
+    private final ConcurrentMap<String, HostClient> hostClients = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+    public PooledHtmlFetcher(int timeoutMillis, int maxIdleConnectionsPerHost, long idleTimeoutMillis,
+                             CrawlerConfig.ParserMode parserMode) {
+        this(new OkHttpClient.Builder()
+                .connectTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .build(), maxIdleConnectionsPerHost, idleTimeoutMillis, parserMode);
+    }
+
+    protected PooledHtmlFetcher(OkHttpClient baseClient, int maxIdleConnectionsPerHost, long idleTimeoutMillis,
+                                CrawlerConfig.ParserMode parserMode) {
+        this.baseClient = baseClient;
+        this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.parserMode = parserMode;
+    }
+
+    @Override
+    public Document fetchDocumentFromUrl(String url) throws IOException {
+        try (Response response = execute(url, null, null)) {
+            return parseDocument(response.body().byteStream(), response);
+        }
+    }
+
+    @Override
+    public PageContent fetchContentFromUrl(String url) throws IOException {
+        return fetchContentIfModified(url, null, null).getContent();
+    }
+
+    @Override
+    public FetchResult fetchContentIfModified(String url, String etag, String lastModified) throws IOException {
+        try (Response response = execute(url, etag, lastModified)) {
+            if (response.code() == NOT_MODIFIED) {
+                return FetchResult.notModified();
+            }
+            // Parsed as the body is read, the recorded parse time includes reading it
+            CountingInputStream body = new CountingInputStream(response.body().byteStream());
+            String baseUri = response.request().url().toString();
+            long start = System.nanoTime();
+            PageContent content = parserMode == CrawlerConfig.ParserMode.STREAMING
+                    ? StreamingContentExtractor.extract(new InputStreamReader(body, FetcherUtils.charsetOrUtf8(
+                            FetcherUtils.charsetParameter(response.header("Content-Type")))), baseUri)
+                    : DomContentExtractor.extract(parseDocument(body, response));
+            content = content.withFetchStats(body.getCount(), System.nanoTime() - start);
+            return new FetchResult(content, response.header("ETag"), response.header("Last-Modified"));
+        }
+    }
+
+    /**
+     * Closes the idle connections of every host.
+     */
+    @Override
+    public void close() {
+        for (HostClient host : hostClients.values()) {
+            host.client.connectionPool().evictAll();
+        }
+        hostClients.clear();
+    }
+
+    public ConnectionMetrics getMetrics() {
+        return metrics;
+    }
+
+    protected int getHostPoolCount() {
+        return hostClients.size();
+    }
+
+    private static Document parseDocument(InputStream body, Response response) throws IOException {
+        String charset = FetcherUtils.charsetParameter(response.header("Content-Type"));
+        return Jsoup.parse(body, charset, response.request().url().toString());
+    }
+
+    private Response execute(String url, String etag, String lastModified) throws IOException {
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            throw new IOException("Malformed URL: " + url);
+        }
+
+        Request.Builder request = new Request.Builder()
+                .url(httpUrl)
+                .header("Accept", "text/html,application/xhtml+xml,*/*;q=0.8");
+        if (etag != null) request.header("If-None-Match", etag);
+        if (lastModified != null) request.header("If-Modified-Since", lastModified);
+        Response response = clientFor(httpUrl).newCall(request.build()).execute();
+        try {
+            FetcherUtils.checkResponse(response.code(), response.header("Content-Type"), url);
+            return response;
+        } catch (IOException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    private OkHttpClient clientFor(HttpUrl url) {
+        long now = System.nanoTime();
+        evictIdleHosts(now);
+
+        String key = url.scheme() + "://" + url.host() + ":" + url.port();
+        HostClient host = hostClients.computeIfAbsent(key, k -> new HostClient(baseClient.newBuilder()
+                .connectionPool(new ConnectionPool(maxIdleConnectionsPerHost, idleTimeoutMillis, TimeUnit.MILLISECONDS))
+                .eventListener(metrics)
+                .build()));
+        host.lastUsedNanos = now;
+        return host.client;
+    }
+
+    /**
+     * Drops the pools of hosts not requested for the idle timeout, at most once per timeout. A request still
+     * running on a dropped pool finishes normally, its connection is then closed by that pool's own timeout.
+     */
+    private void evictIdleHosts(long now) {
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        long lastSweep = lastSweepNanos.get();
+        if (now - lastSweep < idleTimeoutNanos || !lastSweepNanos.compareAndSet(lastSweep, now)) return;
+
+        hostClients.values().removeIf(host -> {
+            if (now - host.lastUsedNanos < idleTimeoutNanos) return false;
+            host.client.connectionPool().evictAll();
+            return true;
+        });
+    }
+
+    private static class HostClient {
+        private final OkHttpClient client;
+        private volatile long lastUsedNanos;
+
+        HostClient(OkHttpClient client) {
+            this.client = client;
+        }
+    }
+}
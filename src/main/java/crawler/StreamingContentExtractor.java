@@ -0,0 +1,396 @@
+package crawler;
+
+import crawler.model.PageContent;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Entities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tokenizes HTML as it is read and keeps only headings and links, so no tree is built for the page.
+ * It follows the parts of jsoup's behaviour the crawler relies on: raw text elements such as script are
+ * skipped, the first {@code <base href>} changes the base URI, links are resolved the way
+ * {@code absUrl} resolves them and heading text is whitespace-normalized like {@code Element.text()}.
+ * Anything else is tolerated rather than validated.
+ */
+public class StreamingContentExtractor {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_ENTITY_LENGTH = 32;
+    private static final Set<String> RAW_TEXT_ELEMENTS = Set.of("script", "style", "title", "textarea",
+            "xmp", "iframe", "noembed", "noframes");
+    private static final Set<String> TEXT_BREAKING_ELEMENTS = Set.of("br", "p", "div", "li", "ul", "ol", "table",
+            "tr", "td", "th", "section", "article", "header", "footer", "nav", "blockquote", "pre", "hr");
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Carries the base URI and the href being resolved, links go through Element.absUrl like in DomContentExtractor
+    private final Element linkResolver = new Element("a");
+    private boolean baseUriFromDocument;
+    private final List<String> headings = new ArrayList<>();
+    private final List<String> links = new ArrayList<>();
+    private final StringBuilder name = new StringBuilder();
+    private StringBuilder headingText;
+    private boolean pendingSpace;
+
+    private StreamingContentExtractor(Reader reader, String baseUri) {
+        this.reader = reader;
+        linkResolver.setBaseUri(baseUri);
+    }
+
+    protected static PageContent extract(Reader reader, String baseUri) throws IOException {
+        StreamingContentExtractor extractor = new StreamingContentExtractor(reader, baseUri);
+        extractor.run();
+        return new PageContent(extractor.headings, extractor.links);
+    }
+
+    private void run() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '<') {
+                readMarkup();
+            } else if (headingText == null) {
+                continue;
+            } else if (c == '&') {
+                appendHeadingText(readEntity(false));
+            } else {
+                appendHeadingText((char) c);
+            }
+        }
+        finishHeading();
+    }
+
+    private void readMarkup() throws IOException {
+        int c = read();
+        if (c == '!') {
+            skipCommentOrDeclaration();
+        } else if (c == '?') {
+            skipPast('>');
+        } else if (c == '/') {
+            readEndTag();
+        } else if (isAsciiLetter(c)) {
+            unread();
+            readStartTag();
+        } else if (headingText != null) {
+            appendHeadingText('<');
+            if (c != -1) unread();
+        } else if (c != -1) {
+            unread();
+        }
+    }
+
+    private void readStartTag() throws IOException {
+        String tag = readName();
+        boolean isLink = tag.equals("a");
+        boolean isBase = tag.equals("base");
+        String href = null;
+
+        int c;
+        while ((c = skipWhitespace()) != -1 && c != '>') {
+            if (c == '/') continue;
+
+            unread();
+            String attribute = readAttributeName();
+            c = skipWhitespace();
+            String value = "";
+            if (c == '=') {
+                value = readAttributeValue((isLink || isBase) && attribute.equals("href"));
+            } else if (c != -1) {
+                unread();
+            }
+            if ((isLink || isBase) && attribute.equals("href") && href == null) {
+                href = value;
+            }
+        }
+        // A tag cut off by the end of the input is dropped, as jsoup does.
+        if (c == -1) return;
+
+        if (DomContentExtractor.headingLevel(tag) > 0) {
+            finishHeading();
+            headingText = new StringBuilder();
+        } else if (isLink && href != null) {
+            addLink(href);
+        } else if (isBase && href != null && !baseUriFromDocument) {
+            String resolved = resolve(href);
+            if (!resolved.isEmpty()) {
+                linkResolver.setBaseUri(resolved);
+                baseUriFromDocument = true;
+            }
+        } else if (RAW_TEXT_ELEMENTS.contains(tag)) {
+            skipRawText(tag);
+        } else if (TEXT_BREAKING_ELEMENTS.contains(tag)) {
+            breakHeadingText();
+        }
+    }
+
+    private void readEndTag() throws IOException {
+        int c = read();
+        if (!isAsciiLetter(c)) {
+            if (c == '>') return;
+            skipPast('>');
+            return;
+        }
+        unread();
+        String tag = readName();
+        skipPast('>');
+        if (DomContentExtractor.headingLevel(tag) > 0) {
+            finishHeading();
+        } else if (TEXT_BREAKING_ELEMENTS.contains(tag)) {
+            breakHeadingText();
+        }
+    }
+
+    private void addLink(String href) {
+        String link = resolve(href).trim().toLowerCase();
+        if (!link.isEmpty()) {
+            links.add(link);
+        }
+    }
+
+    /**
+     * Same resolution as Element.absUrl, so both parser modes produce identical links.
+     */
+    private String resolve(String href) {
+        linkResolver.attr("href", href);
+        return linkResolver.absUrl("href");
+    }
+
+    private void appendHeadingText(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            appendHeadingText(text.charAt(i));
+        }
+    }
+
+    private void appendHeadingText(char c) {
+        if (isWhitespace(c)) {
+            pendingSpace = headingText.length() > 0;
+            return;
+        }
+        if (pendingSpace) {
+            headingText.append(' ');
+            pendingSpace = false;
+        }
+        headingText.append(c);
+    }
+
+    private void breakHeadingText() {
+        if (headingText != null && headingText.length() > 0) {
+            pendingSpace = true;
+        }
+    }
+
+    private void finishHeading() {
+        if (headingText == null) return;
+
+        if (headingText.length() > 0) {
+            headings.add(headingText.toString());
+        }
+        headingText = null;
+        pendingSpace = false;
+    }
+
+    private String readName() throws IOException {
+        name.setLength(0);
+        int c;
+        while ((c = read()) != -1 && !isWhitespace(c) && c != '/' && c != '>') {
+            name.append(toLowerAscii(c));
+        }
+        if (c != -1) unread();
+        return name.toString();
+    }
+
+    private String readAttributeName() throws IOException {
+        name.setLength(0);
+        int c = read();
+        name.append(toLowerAscii(c));
+        while ((c = read()) != -1 && !isWhitespace(c) && c != '/' && c != '>' && c != '=') {
+            name.append(toLowerAscii(c));
+        }
+        if (c != -1) unread();
+        return name.toString();
+    }
+
+    private String readAttributeValue(boolean keep) throws IOException {
+        int c = skipWhitespace();
+        StringBuilder value = keep ? new StringBuilder() : null;
+        if (c == '"' || c == '\'') {
+            int quote = c;
+            while ((c = read()) != -1 && c != quote) {
+                appendAttributeChar(value, c);
+            }
+        } else {
+            while (c != -1 && !isWhitespace(c) && c != '>') {
+                appendAttributeChar(value, c);
+                c = read();
+            }
+            if (c != -1) unread();
+        }
+        return keep ? value.toString() : null;
+    }
+
+    private void appendAttributeChar(StringBuilder value, int c) throws IOException {
+        if (value == null) return;
+
+        if (c == '&') {
+            value.append(readEntity(true));
+        } else {
+            value.append((char) c);
+        }
+    }
+
+    /**
+     * Reads a character reference after '&amp;'. Unknown references are returned verbatim. In attribute values
+     * a named reference must end with ';', so query strings like {@code ?a=1&copy=2} stay intact.
+     */
+    private String readEntity(boolean inAttribute) throws IOException {
+        StringBuilder reference = new StringBuilder();
+        int c;
+        while (reference.length() < MAX_ENTITY_LENGTH && (c = read()) != -1) {
+            if (isAsciiLetter(c) || (c >= '0' && c <= '9') || (c == '#' && reference.length() == 0)) {
+                reference.append((char) c);
+            } else {
+                unread();
+                break;
+            }
+        }
+        boolean terminated = peek() == ';';
+        if (terminated) read();
+
+        String decoded = decodeReference(reference.toString(), terminated, inAttribute);
+        if (decoded != null) return decoded;
+        return "&" + reference + (terminated ? ";" : "");
+    }
+
+    private static String decodeReference(String reference, boolean terminated, boolean inAttribute) {
+        if (reference.isEmpty()) return null;
+
+        if (reference.charAt(0) == '#') {
+            boolean hex = reference.length() > 1 && (reference.charAt(1) == 'x' || reference.charAt(1) == 'X');
+            String digits = reference.substring(hex ? 2 : 1);
+            try {
+                int codePoint = Integer.parseInt(digits, hex ? 16 : 10);
+                return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (terminated && Entities.isNamedEntity(reference)) {
+            return Entities.getByName(reference);
+        }
+        if (!terminated && !inAttribute && Entities.isBaseNamedEntity(reference)) {
+            return Entities.getByName(reference);
+        }
+        return null;
+    }
+
+    private void skipCommentOrDeclaration() throws IOException {
+        if (read() == '-') {
+            if (read() == '-') {
+                skipComment();
+                return;
+            }
+            unread();
+        } else {
+            unread();
+        }
+        skipPast('>');
+    }
+
+    private void skipComment() throws IOException {
+        int dashes = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '>' && dashes >= 2) return;
+            dashes = c == '-' ? dashes + 1 : 0;
+        }
+    }
+
+    private void skipRawText(String tag) throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c != '<' || peek() != '/') continue;
+
+            read();
+            if (matchesName(tag)) {
+                skipPast('>');
+                return;
+            }
+        }
+    }
+
+    private boolean matchesName(String tag) throws IOException {
+        for (int i = 0; i < tag.length(); i++) {
+            int c = read();
+            if (c == -1) return false;
+            if (toLowerAscii(c) != tag.charAt(i)) {
+                unread();
+                return false;
+            }
+        }
+        int c = peek();
+        return c == -1 || isWhitespace(c) || c == '/' || c == '>';
+    }
+
+    private void skipPast(char terminator) throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != terminator) {
+            // skip
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = read()) != -1 && isWhitespace(c)) {
+            // skip
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    /**
+     * Steps back over the character just returned by {@link #read()}. Only valid directly after a successful read.
+     */
+    private void unread() {
+        position--;
+    }
+
+    private boolean fill() throws IOException {
+        // Keep the last character at index 0 so unread() still works across a refill.
+        char last = limit > 0 ? buffer[limit - 1] : 0;
+        int read = reader.read(buffer, 1, BUFFER_SIZE - 1);
+        if (read <= 0) return false;
+
+        buffer[0] = last;
+        position = 1;
+        limit = read + 1;
+        return true;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == 160;
+    }
+
+    private static boolean isAsciiLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static char toLowerAscii(int c) {
+        return (char) (c >= 'A' && c <= 'Z' ? c + 32 : c);
+    }
+}
@@ -0,0 +1,29 @@
+package crawler;
+
+import crawler.model.PageContent;
+import org.jsoup.Connection;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+/**
+ * Fetches pages like {@link JsoupHtmlFetcher} but extracts headings and links while the body is read,
+ * without building a DOM. The charset is taken from the Content-Type header, falling back to UTF-8.
+ */
+public class StreamingHtmlFetcher extends JsoupHtmlFetcher {
+
+    public StreamingHtmlFetcher(int timeoutMillis) {
+        super(timeoutMillis);
+    }
+
+    @Override
+    protected PageContent extractContent(Connection.Response response) throws IOException {
+        CountingInputStream body = new CountingInputStream(response.bodyStream());
+        long start = System.nanoTime();
+        try (Reader reader = new InputStreamReader(body, FetcherUtils.charsetOrUtf8(response.charset()))) {
+            PageContent content = StreamingContentExtractor.extract(reader, response.url().toExternalForm());
+            return content.withFetchStats(body.getCount(), System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Report writer for large crawls: every finished page is appended to a spill file as soon as it completes,
+ * so its headings and links can be dropped from memory. Only those move off the heap: the crawler still keeps
+ * a shell of every page (URL, depth, start URLs, broken flag and fingerprints), this writer keeps the offset of
+ * each record so the links of a page can be read back when the crawler finds a shorter path to it, and
+ * {@link #write} indexes the final shells by URL. Memory therefore still grows with the number of pages,
+ * but not with their size.
+ * At the end the spill is read once and rendered into one segment file per start URL and depth,
+ * which are then concatenated in depth order into the same report {@link MarkdownWriter} produces.
+ */
+public class StreamingReportWriter implements PageSpill, Closeable {
+
+    private final Path spillFile;
+    private final CountingOutputStream spillPosition;
+    private final DataOutputStream spill;
+    private final Map<String, Long> recordOffsets = new HashMap<>();
+    private final UrlCanonicalizer canonicalizer;
+    private final MarkdownWriter markdown;
+    private boolean spillClosed;
+
+    public StreamingReportWriter(Path spillFile) throws IOException {
+        this(spillFile, UrlCanonicalizer.DEFAULT);
+    }
+
+    public StreamingReportWriter(Path spillFile, UrlCanonicalizer canonicalizer) throws IOException {
+        this.spillFile = spillFile;
+        this.canonicalizer = canonicalizer;
+        this.markdown = new MarkdownWriter(canonicalizer);
+        this.spillPosition = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+        this.spill = new DataOutputStream(spillPosition);
+    }
+
+    @Override
+    public synchronized void accept(CrawledPage page) {
+        try {
+            recordOffsets.put(page.getUrl(), spillPosition.getCount());
+            CrawledPageCodec.write(spill, page);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spill page " + page.getUrl(), e);
+        }
+    }
+
+    /**
+     * Reads the latest record of the page back from the spill file.
+     */
+    @Override
+    public synchronized List<String> readLinks(String url) throws IOException {
+        Long offset = recordOffsets.get(url);
+        if (offset == null || spillClosed) return null;
+
+        spill.flush();
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+            channel.position(offset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            return CrawledPageCodec.read(in).getLinks();
+        }
+    }
+
+    /**
+     * @param pages Final state of the crawled pages. Only URL, depth, broken flag and start URLs are used,
+     *              headings and links are read back from the spill file.
+     */
+    public void write(List<CrawledPage> pages, String filename, List<URL> startUrls) throws IOException {
+        closeSpill();
+
+        Set<String> brokenUrls = MarkdownUtils.indexBrokenPages(pages, canonicalizer);
+        Map<String, CrawledPage> finalPages = new HashMap<>();
+        for (CrawledPage page : pages) {
+            finalPages.put(page.getUrl(), page);
+        }
+
+        Path segmentDir = Files.createTempDirectory("report-segments");
+        try {
+            Map<String, SortedMap<Integer, Path>> segmentsByRoot = renderSegments(finalPages, brokenUrls, startUrls, segmentDir);
+            try (Writer writer = Files.newBufferedWriter(Path.of(filename), StandardCharsets.UTF_8)) {
+                markdown.writeTitle(writer);
+                for (URL root : startUrls) {
+                    markdown.writeRootHeader(writer, root);
+                    for (Path segment : segmentsByRoot.getOrDefault(root.toExternalForm(), Collections.emptySortedMap()).values()) {
+                        try (Reader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                            reader.transferTo(writer);
+                        }
+                    }
+                }
+            }
+        } finally {
+            deleteRecursively(segmentDir);
+        }
+    }
+
+    private Map<String, SortedMap<Integer, Path>> renderSegments(Map<String, CrawledPage> finalPages, Set<String> brokenUrls,
+                                                                List<URL> startUrls, Path segmentDir) throws IOException {
+        Map<String, Integer> rootIndex = new HashMap<>();
+        for (URL root : startUrls) {
+            rootIndex.putIfAbsent(root.toExternalForm(), rootIndex.size());
+        }
+
+        Map<String, SortedMap<Integer, Path>> segmentsByRoot = new HashMap<>();
+        Map<Path, Writer> openSegments = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile)))) {
+            CrawledPage spilled;
+            while ((spilled = CrawledPageCodec.read(in)) != null) {
+                CrawledPage current = finalPages.get(spilled.getUrl());
+                if (current == null) continue;
+
+                CrawledPage merged = new CrawledPage(current.getUrl(), current.getDepth(),
+                        spilled.getHeadings(), spilled.getLinks(), current.isBroken());
+                merged.setDuplicateOf(current.getDuplicateOf());
+                for (URL root : current.getFromStartUrls()) {
+                    Integer index = rootIndex.get(root.toExternalForm());
+                    if (index == null) continue;
+
+                    Path segment = segmentsByRoot.computeIfAbsent(root.toExternalForm(), r -> new TreeMap<>())
+                            .computeIfAbsent(current.getDepth(), depth -> segmentDir.resolve(index + "-" + depth + ".md"));
+                    Writer writer = openSegments.get(segment);
+                    if (writer == null) {
+                        writer = Files.newBufferedWriter(segment, StandardCharsets.UTF_8);
+                        openSegments.put(segment, writer);
+                    }
+                    markdown.writePage(writer, merged, brokenUrls);
+                }
+            }
+        } finally {
+            for (Writer writer : openSegments.values()) {
+                writer.close();
+            }
+        }
+        return segmentsByRoot;
+    }
+
+    private synchronized void closeSpill() throws IOException {
+        if (spillClosed) return;
+        spillClosed = true;
+        recordOffsets.clear();
+        spill.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSpill();
+        Files.deleteIfExists(spillFile);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+}
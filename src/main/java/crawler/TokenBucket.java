@@ -0,0 +1,62 @@
+package crawler;
+
+/**
+ * Classic token bucket: refills at a fixed rate up to its capacity, every request takes one token.
+ * Not thread-safe, callers synchronize (see {@link HostFrontier}).
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond Refill rate, values <= 0 disable the limit.
+     * @param nowNanos         Current {@link System#nanoTime()}, the bucket starts full.
+     */
+    public TokenBucket(double permitsPerSecond, long nowNanos) {
+        this.tokensPerNano = permitsPerSecond / NANOS_PER_SECOND;
+        this.capacity = Math.max(1.0, permitsPerSecond);
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        if (isUnlimited()) return true;
+
+        refill(nowNanos);
+        if (tokens < 1.0) return false;
+        tokens -= 1.0;
+        return true;
+    }
+
+    /**
+     * Gives back a token that was taken but not used, e.g. because the task turned out to be a duplicate.
+     */
+    public void refund() {
+        if (isUnlimited()) return;
+        tokens = Math.min(capacity, tokens + 1.0);
+    }
+
+    public long nanosUntilAvailable(long nowNanos) {
+        if (isUnlimited()) return 0;
+
+        refill(nowNanos);
+        if (tokens >= 1.0) return 0;
+        return (long) Math.ceil((1.0 - tokens) / tokensPerNano);
+    }
+
+    private boolean isUnlimited() {
+        return tokensPerNano <= 0;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed <= 0) return;
+        tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+        lastRefillNanos = nowNanos;
+    }
+}
@@ -0,0 +1,224 @@
+package crawler;
+
+/**
+ * Single-pass parser for absolute URLs, replacing {@link java.net.URL} plus regex on the hot path.
+ * The crawler, the page cache and the report share one canonicalizer built from the configuration, so they agree
+ * on when two links point at the same page.
+ * The canonical form is {@code scheme://host:port/path?query} with scheme and host lowercased, the port only
+ * if it is not the scheme's default, one trailing slash removed from the path, the query filtered and sorted by
+ * the {@link CanonicalizationRules}, and user info and fragment dropped.
+ */
+public class UrlCanonicalizer {
+
+    public static final UrlCanonicalizer DEFAULT = new UrlCanonicalizer(CanonicalizationRules.DEFAULT);
+
+    private final CanonicalizationRules rules;
+
+    public UrlCanonicalizer(CanonicalizationRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Offsets of the components of one URL inside the original string, so parsing does not allocate substrings.
+     */
+    protected static final class Parts {
+        final String source;
+        int schemeEnd;
+        int hostStart;
+        int hostEnd;
+        int port = -1;
+        int pathStart;
+        int pathEnd;
+        int queryStart = -1;
+        int queryEnd = -1;
+        int fragmentStart = -1;
+        int end;
+
+        private Parts(String source) {
+            this.source = source;
+        }
+
+        String scheme() {
+            return source.substring(0, schemeEnd).toLowerCase();
+        }
+
+        String host() {
+            return lowerCase(source, hostStart, hostEnd);
+        }
+
+        int port() {
+            return port;
+        }
+
+        String path() {
+            return source.substring(pathStart, pathEnd);
+        }
+
+        /**
+         * @return The query without the leading '?', or null if the URL has none.
+         */
+        String query() {
+            return queryStart < 0 ? null : source.substring(queryStart, queryEnd);
+        }
+    }
+
+    /**
+     * @return The canonical form of the URL, or an empty string if it is not an absolute URL with a host.
+     */
+    protected String canonicalize(String url) {
+        Parts parts = parse(url);
+        return parts == null ? "" : canonicalForm(parts);
+    }
+
+    /**
+     * Canonical form of an already parsed URL, for callers that also need other components such as the host.
+     */
+    protected String canonicalForm(Parts parts) {
+        String source = parts.source;
+        StringBuilder canonical = new StringBuilder(parts.end);
+        appendLowerCase(canonical, source, 0, parts.schemeEnd);
+        canonical.append("://");
+        appendLowerCase(canonical, source, parts.hostStart, parts.hostEnd);
+        if (parts.port >= 0 && parts.port != defaultPort(parts)) {
+            canonical.append(':').append(parts.port);
+        }
+
+        int pathEnd = parts.pathEnd;
+        if (pathEnd > parts.pathStart && source.charAt(pathEnd - 1) == '/') pathEnd--;
+        canonical.append(source, parts.pathStart, pathEnd);
+        if (parts.queryEnd > parts.queryStart) {
+            rules.appendQuery(canonical, parts);
+        }
+        return canonical.toString();
+    }
+
+    public CanonicalizationRules getRules() {
+        return rules;
+    }
+
+    private static int defaultPort(Parts parts) {
+        String source = parts.source;
+        if (parts.schemeEnd == 4 && source.regionMatches(true, 0, "http", 0, 4)) return 80;
+        if (parts.schemeEnd == 5 && source.regionMatches(true, 0, "https", 0, 5)) return 443;
+        return -1;
+    }
+
+    /**
+     * @return The lowercased host of the URL, or an empty string if it cannot be parsed.
+     */
+    protected static String extractHost(String url) {
+        Parts parts = parse(url);
+        return parts == null ? "" : parts.host();
+    }
+
+    /**
+     * @return The parsed components, or null if the string is not an absolute {@code scheme://host...} URL.
+     */
+    protected static Parts parse(String url) {
+        if (url == null) return null;
+
+        int start = 0;
+        int end = url.length();
+        while (start < end && url.charAt(start) <= ' ') start++;
+        while (end > start && url.charAt(end - 1) <= ' ') end--;
+        if (start > 0) return parse(url.substring(start, end));
+
+        Parts parts = new Parts(url);
+        parts.end = end;
+
+        int schemeEnd = scanScheme(url, end);
+        if (schemeEnd < 0) return null;
+        if (schemeEnd + 2 >= end || url.charAt(schemeEnd + 1) != '/' || url.charAt(schemeEnd + 2) != '/') return null;
+        parts.schemeEnd = schemeEnd;
+
+        int authorityStart = schemeEnd + 3;
+        int authorityEnd = authorityStart;
+        while (authorityEnd < end) {
+            char c = url.charAt(authorityEnd);
+            if (c == '/' || c == '?' || c == '#') break;
+            authorityEnd++;
+        }
+        if (!parseAuthority(url, authorityStart, authorityEnd, parts)) return null;
+
+        int index = authorityEnd;
+        parts.pathStart = index;
+        while (index < end && url.charAt(index) != '?' && url.charAt(index) != '#') index++;
+        parts.pathEnd = index;
+
+        if (index < end && url.charAt(index) == '?') {
+            parts.queryStart = ++index;
+            while (index < end && url.charAt(index) != '#') index++;
+            parts.queryEnd = index;
+        }
+        if (index < end) {
+            parts.fragmentStart = index + 1;
+        }
+        return parts;
+    }
+
+    private static int scanScheme(String url, int end) {
+        if (end == 0 || !isAsciiLetter(url.charAt(0))) return -1;
+        for (int i = 1; i < end; i++) {
+            char c = url.charAt(i);
+            if (c == ':') return i;
+            if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') return -1;
+        }
+        return -1;
+    }
+
+    private static boolean parseAuthority(String url, int start, int end, Parts parts) {
+        int hostStart = url.lastIndexOf('@', end - 1);
+        hostStart = hostStart >= start ? hostStart + 1 : start;
+
+        int hostEnd;
+        int portSeparator;
+        if (hostStart < end && url.charAt(hostStart) == '[') {
+            int closing = url.indexOf(']', hostStart);
+            if (closing < 0 || closing >= end) return false;
+            hostEnd = closing + 1;
+            portSeparator = hostEnd < end ? hostEnd : -1;
+            if (portSeparator >= 0 && url.charAt(portSeparator) != ':') return false;
+        } else {
+            portSeparator = url.indexOf(':', hostStart);
+            if (portSeparator >= end) portSeparator = -1;
+            hostEnd = portSeparator >= 0 ? portSeparator : end;
+        }
+        if (hostEnd == hostStart) return false;
+
+        if (portSeparator >= 0 && portSeparator + 1 < end) {
+            int port = 0;
+            for (int i = portSeparator + 1; i < end; i++) {
+                char c = url.charAt(i);
+                if (c < '0' || c > '9' || port > 65535) return false;
+                port = port * 10 + (c - '0');
+            }
+            if (port > 65535) return false;
+            parts.port = port;
+        }
+        parts.hostStart = hostStart;
+        parts.hostEnd = hostEnd;
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static String lowerCase(String source, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                return appendLowerCase(new StringBuilder(end - start), source, start, end).toString();
+            }
+        }
+        return source.substring(start, end);
+    }
+
+    private static StringBuilder appendLowerCase(StringBuilder target, String source, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            target.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,41 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Scores a task with the summed weights of every pattern found in its URL, e.g. {@code /docs/} with 10 to crawl
+ * documentation first or {@code \?page=} with -5 to push pagination back.
+ */
+public class UrlPatternScorer implements LinkScorer {
+
+    private final List<Pattern> patterns = new ArrayList<>();
+    private final double[] weights;
+
+    /**
+     * @param weightsByPattern Weight per regular expression, matched anywhere in the URL.
+     */
+    public UrlPatternScorer(Map<String, Double> weightsByPattern) {
+        this.weights = new double[weightsByPattern.size()];
+        for (Map.Entry<String, Double> entry : weightsByPattern.entrySet()) {
+            weights[patterns.size()] = entry.getValue();
+            patterns.add(Pattern.compile(entry.getKey()));
+        }
+    }
+
+    @Override
+    public double score(CrawlTask task) {
+        String url = task.getUrl();
+        double score = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (patterns.get(i).matcher(url).find()) {
+                score += weights[i];
+            }
+        }
+        return score;
+    }
+}
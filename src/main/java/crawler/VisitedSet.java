@@ -0,0 +1,29 @@
+package crawler;
+
+/**
+ * Remembers which normalized URLs have already been claimed by a crawl worker.
+ * Implementations must be safe for concurrent use.
+ */
+public interface VisitedSet {
+    /**
+     * Atomically claims the URL.
+     *
+     * @param normalizedUrl The URL in the form produced by {@link UrlCanonicalizer#canonicalize(String)}.
+     * @return true if this call claimed the URL, false if it had been claimed before.
+     */
+    boolean add(String normalizedUrl);
+
+    boolean contains(String normalizedUrl);
+
+    long size();
+
+    /**
+     * Estimated number of bytes held by the set, including preallocated but unused capacity.
+     */
+    long memoryFootprintBytes();
+
+    default double bytesPerUrl() {
+        long size = size();
+        return size == 0 ? 0 : (double) memoryFootprintBytes() / size;
+    }
+}
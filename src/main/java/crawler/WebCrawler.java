@@ -1,105 +1,761 @@
 package crawler;
 
+import crawler.model.CrawlTask;
 import crawler.model.CrawledPage;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 public class WebCrawler {
 
+    private static final long MAX_DISPATCH_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
     private final CrawlerConfig config;
-    private final Set<String> visitedPages;
-    private final List<CrawledPage> resultsList;
+    private final VisitedSet visitedPages;
+    private final Queue<CrawledPage> resultsList;
+    private final ConcurrentMap<String, CrawledPage> pageIndex = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<URL>> pendingStartUrls = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> pendingDepths = new ConcurrentHashMap<>();
     private final PageProcessor pageProcessor;
+    private final UrlCanonicalizer canonicalizer;
     private final ExecutorService executor;
     private final CompletionService<Void> completionService;
-    private final AtomicInteger submittedTaskCount = new AtomicInteger(0);
-    private final int numberOfThreadsForExecutor = 20;
+    private final LinkScorer linkScorer;
+    private final ContentFingerprintIndex contentIndex;
+    private final HostFrontier frontier;
+    private final AtomicInteger outstandingTasks = new AtomicInteger(0);
+    private final AtomicInteger claimedPages = new AtomicInteger(0);
+    private final Semaphore inFlightRequests;
+    private final LongAdder unchangedPages = new LongAdder();
+    private final LongAdder depthCorrections = new LongAdder();
+    private final CrawlMetrics metrics;
+    private final AsyncLogger logger;
+    private long deadlineNanos;
+    private volatile String stopReason;
+    private PageSpill pageSpill;
+    private boolean retainLinks;
+    private Map<String, CrawledPage> previousCrawl;
+    private CheckpointLog checkpoint;
+    private CheckpointLog.Recovered resumeFrom;
 
     public WebCrawler(CrawlerConfig config, PageProcessor pageProcessor) {
         this.config = config;
-        this.visitedPages = ConcurrentHashMap.newKeySet();
-        this.resultsList = Collections.synchronizedList(new ArrayList<>());
+        this.canonicalizer = config.getUrlCanonicalizer();
+        this.visitedPages = createVisitedSet(config);
+        this.resultsList = new ConcurrentLinkedQueue<>();
         this.pageProcessor = pageProcessor;
-        this.executor = Executors.newFixedThreadPool(numberOfThreadsForExecutor);
+        this.logger = new AsyncLogger(config.getLogLevel());
+        this.executor = createExecutor(config, logger);
+        this.inFlightRequests = new Semaphore(config.getMaxInFlightRequests());
         this.completionService = new ExecutorCompletionService<>(executor);
+        this.linkScorer = createLinkScorer(config);
+        this.contentIndex = createContentIndex(config);
+        this.frontier = new HostFrontier(config, linkScorer);
+        this.metrics = pageProcessor.getMetrics();
+        metrics.setQueueDepth(frontier::size);
     }
 
     protected List<CrawledPage> crawl() {
+        if (config.getTimeLimitSeconds() > 0) {
+            deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getTimeLimitSeconds());
+        }
+        MetricsReporter reporter = new MetricsReporter(metrics, logger, config.getMetricsIntervalSeconds(),
+                config.getMetricsFile() == null ? null : Path.of(config.getMetricsFile()));
+        if (resumeFrom != null) {
+            restoreFromCheckpoint();
+        }
         for (URL url : config.getStartUrls()) {
-            submitCrawlTask(url.toString(), 0, url);
+            enqueueCrawlTask(url.toString(), 0, url);
+        }
+        if (previousCrawl != null) {
+            seedFromPreviousCrawl();
+        }
+
+        boolean completed = runDispatcher();
+        if (previousCrawl != null) {
+            // Unchanged pages were not expanded, so pages that became reachable through them are still missing
+            while (completed && enqueueUnvisitedReachablePages() > 0) {
+                completed = runDispatcher();
+            }
+        }
+
+        executor.shutdown();
+        reporter.stop();
+        List<CrawledPage> results = previousCrawl == null ? new ArrayList<>(resultsList) : applyReachability();
+        logSummary(results.size());
+        try {
+            frontier.close();
+        } catch (IOException e) {
+            logger.warn("Could not delete the frontier spill files: %s", e.getMessage());
+        }
+        // Flushes the summary, nothing the caller prints afterwards can interleave with the crawl's output
+        logger.close();
+        return results;
+    }
+
+    private void logSummary(int returnedPages) {
+        if (stopReason != null) {
+            logger.info("Stopped early: %s, returning %d pages (%d URLs were still queued)",
+                    stopReason, resultsList.size(), frontier.size());
+        }
+        logger.info("Links: %d discovered, %d filtered by depth or domain, %d tasks enqueued",
+                metrics.getLinksDiscovered(), metrics.getLinksFiltered(), metrics.getTasksEnqueued());
+        if (frontier.getSpilledTasks() > 0) {
+            logger.info("Frontier spilled %d tasks to disk", frontier.getSpilledTasks());
+        }
+        if (metrics.getDuplicateContentPages() > 0) {
+            logger.info("Found %d pages with duplicate content, their links were not followed",
+                    metrics.getDuplicateContentPages());
+        }
+        if (depthCorrections.sum() > 0) {
+            logger.info("Corrected the depth of %d pages reached by a shorter path", depthCorrections.sum());
+        }
+        logger.info("Visited %d URLs, visited set uses ~%.1f bytes per URL (%s)",
+                visitedPages.size(), visitedPages.bytesPerUrl(), config.getVisitedSetType());
+        if (visitedPages instanceof BloomFilteredVisitedSet bloomFiltered) {
+            logger.info("Bloom filter saved %d lookups, %d false positives",
+                    bloomFiltered.getLookupsSaved(), bloomFiltered.getFalsePositives());
         }
+        if (previousCrawl != null) {
+            logger.info("Incremental crawl: %d of %d pages unchanged, %d no longer reachable",
+                    unchangedPages.sum(), resultsList.size(), resultsList.size() - returnedPages);
+        }
+    }
 
-        for (int i = 0; i < submittedTaskCount.get(); i++) {
+    /**
+     * Runs tasks until the frontier is empty and no task is outstanding. A task is outstanding from the moment it
+     * is submitted until the dispatcher has taken its result, and a worker that leaves a fetch to a follow-up task
+     * registers that task before returning, so the count only reaches zero once all work is done.
+     * When the time limit or page budget runs out nothing new is dispatched, and the crawl ends as soon as
+     * the tasks already running have finished.
+     *
+     * @return false if the crawl was interrupted or stopped early.
+     */
+    private boolean runDispatcher() {
+        while (outstandingTasks.get() > 0 || (stopReason == null && !frontier.isEmpty())) {
+            if (stopReason == null && deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0) {
+                stop("time limit of " + config.getTimeLimitSeconds() + "s reached");
+            }
+            if (stopReason == null) {
+                dispatchReadyTasks();
+            }
             try {
-                completionService.take().get();
+                Future<Void> finished = completionService.poll(nanosToWaitForCompletion(), TimeUnit.NANOSECONDS);
+                if (finished == null) continue;
+                outstandingTasks.decrementAndGet();
+                finished.get();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
-                System.err.println("Crawling interrupted.");
+                logger.error("Crawling interrupted.");
+                return false;
             } catch (ExecutionException e) {
-                System.err.println("Crawling task failed: " + e.getCause());
+                logger.error("Crawling task failed: %s", e.getCause());
             }
         }
+        return stopReason == null;
+    }
 
-        executor.shutdown();
-        return resultsList;
+    private void stop(String reason) {
+        if (stopReason == null) {
+            stopReason = reason;
+        }
+    }
+
+    private void enqueueCrawlTask(String url, int depth, URL rootStartUrl) {
+        enqueueCrawlTask(new CrawlTask(url, depth, rootStartUrl));
     }
 
-    private void submitCrawlTask(String url, int depth, URL rootStartUrl) {
-        submittedTaskCount.incrementAndGet();
-        completionService.submit(() -> {
-            crawlRecursively(url, depth, rootStartUrl);
+    private void enqueueCrawlTask(CrawlTask task) {
+        if (checkpoint != null) {
+            checkpoint.taskEnqueued(task);
+        }
+        offerTask(task);
+    }
+
+    private void offerTask(CrawlTask task) {
+        metrics.recordTaskEnqueued();
+        frontier.offer(task);
+    }
+
+    /**
+     * Moves ready tasks to the executor, but never more than the in-flight limit at a time: the executor queue
+     * stays short and everything else waits in the frontier, which can spill to disk.
+     */
+    private void dispatchReadyTasks() {
+        CrawlTask task;
+        while (outstandingTasks.get() < config.getMaxInFlightRequests()
+                && (task = frontier.poll(System.nanoTime())) != null) {
+            CrawlTask dispatched = task;
+            outstandingTasks.incrementAndGet();
+            completionService.submit(() -> {
+                metrics.workerStarted();
+                try {
+                    crawlRecursively(dispatched);
+                } finally {
+                    metrics.workerFinished();
+                }
+                return null;
+            });
+        }
+    }
+
+    private long nanosToWaitForCompletion() {
+        // Wake up early when a rate-limited host gets its next token, otherwise only a finished task can unblock us
+        long now = System.nanoTime();
+        long untilReady = frontier.nanosUntilReady(now);
+        if (deadlineNanos != 0) {
+            untilReady = Math.min(untilReady, deadlineNanos - now);
+        }
+        return Math.min(Math.max(untilReady, 0), MAX_DISPATCH_WAIT_NANOS);
+    }
+
+    /**
+     * Claims the task's URL and starts fetching it. With an asynchronous fetcher the worker returns right away
+     * and the page is finished by a follow-up task once the response has been parsed.
+     */
+    private void crawlRecursively(CrawlTask task) {
+        String url = task.getUrl();
+        if (stopReason != null) {
+            // Dispatched before the crawl was stopped, leave it for a resumed crawl
+            frontier.release(task, false);
+            return;
+        }
+
+        String normalized = task.getNormalizedUrl();
+        try {
+            // Links found on a page were checked before they were enqueued, only other tasks are checked here
+            if (normalized == null) {
+                normalized = canonicalizer.canonicalize(url);
+                if (!shouldCrawl(normalized, task.getDepth())) {
+                    frontier.release(task, false);
+                    return;
+                }
+            }
+
+            // add() is the atomic claim: exactly one worker wins a URL, everyone else just records the start URL
+            if (!visitedPages.add(normalized)) {
+                metrics.recordDuplicateClaim();
+                addStartUrlToExistingPage(normalized, task.getRootStartUrl());
+                lowerDepth(normalized, task.getDepth(), task.getRootStartUrl());
+                frontier.release(task, false);
+                return;
+            }
+            linkScorer.pageClaimed(normalized);
+            if (config.getMaxPages() > 0 && claimedPages.incrementAndGet() > config.getMaxPages()) {
+                stop("page budget of " + config.getMaxPages() + " reached");
+                frontier.release(task, false);
+                return;
+            }
+        } catch (RuntimeException e) {
+            frontier.release(task, false);
+            throw e;
+        }
+
+        logger.debug("Crawling at %s (depth %d)", url, task.getDepth());
+
+        CompletableFuture<CrawledPage> fetch;
+        try {
+            fetch = processWithinInFlightLimit(url, task.getDepth());
+        } catch (RuntimeException e) {
+            frontier.release(task, true);
+            throw e;
+        }
+        if (fetch.isDone()) {
+            finishPage(task, normalized, fetch);
+            return;
+        }
+
+        // Counted before this task completes, so the dispatcher cannot see all work done while the fetch is pending
+        outstandingTasks.incrementAndGet();
+        String claimed = normalized;
+        fetch.whenComplete((page, error) -> completionService.submit(() -> {
+            metrics.workerStarted();
+            try {
+                finishPage(task, claimed, fetch);
+            } finally {
+                metrics.workerFinished();
+            }
             return null;
-        });
+        }));
     }
 
-    private void crawlRecursively(String url, int currentDepth, URL rootStartUrl) {
-        String normalized = WebCrawlerUtils.normalizeUrl(url);
+    private void finishPage(CrawlTask task, String normalized, CompletableFuture<CrawledPage> fetch) {
+        try {
+            CrawledPage page = fetch.join();
+            URL rootStartUrl = task.getRootStartUrl();
+            page.getFromStartUrls().add(rootStartUrl);
+            // Before indexing, so a shorter path found meanwhile cannot expand a duplicate
+            markDuplicateContent(page);
+            indexPage(normalized, page);
+            resultsList.add(page);
 
-        if (!shouldCrawl(normalized, currentDepth)) return;
+            if (isExpandable(page)) {
+                if (hasSameLinksAsBefore(normalized, page)) {
+                    // Its links were all crawled last time and are seeded again, nothing new to discover here
+                    unchangedPages.increment();
+                } else {
+                    // Not the task's depth, indexPage applies shorter paths found while the page was fetched
+                    expandLinks(page.getLinks(), page.getDepth(), rootStartUrl, this::enqueueCrawlTask);
+                }
+            }
+            if (checkpoint != null) {
+                checkpoint.pageFinished(page);
+            }
+            spill(page);
+        } finally {
+            frontier.release(task, true);
+        }
+    }
 
-        if (visitedPages.contains(normalized)) {
-            addStartUrlToExistingPage(normalized, rootStartUrl);
+    /**
+     * Filters the links of a page by depth and domain before anything is enqueued, parsing each link once.
+     * Only links to pages that are not visited yet become tasks, visited pages may get a shorter depth instead.
+     */
+    private void expandLinks(List<String> links, int currentDepth, URL rootStartUrl, Consumer<CrawlTask> enqueue) {
+        metrics.recordLinksDiscovered(links.size());
+        if (currentDepth + 1 > config.getMaxDepth()) {
+            metrics.recordLinksFiltered(links.size());
             return;
         }
-        visitedPages.add(normalized);
 
-        System.out.printf("Crawling at %s (depth %d)\n", url, currentDepth);
+        DomainMatcher allowedDomains = config.getDomainMatcher();
+        for (String link : links) {
+            UrlCanonicalizer.Parts parts = UrlCanonicalizer.parse(link);
+            if (parts == null || !allowedDomains.matches(parts.host())) {
+                metrics.recordLinksFiltered(1);
+                continue;
+            }
+            String normalizedLink = canonicalizer.canonicalForm(parts);
 
-        CrawledPage page = pageProcessor.processPage(url, currentDepth);
-        page.getFromStartUrls().add(rootStartUrl);
-        resultsList.add(page);
+            // Most links point at pages we already have, settle those here instead of paying for a task
+            if (visitedPages.contains(normalizedLink)) {
+                metrics.recordKnownLink();
+                addStartUrlToExistingPage(normalizedLink, rootStartUrl);
+                lowerDepth(normalizedLink, currentDepth + 1, rootStartUrl);
+                continue;
+            }
+            linkScorer.linkDiscovered(normalizedLink);
+            enqueue.accept(new CrawlTask(link, currentDepth + 1, rootStartUrl, normalizedLink));
+        }
+    }
 
-        if (page.isBroken() || page.getLinks() == null) return;
+    /**
+     * Puts the pages of the checkpoint back and re-enqueues every recorded task; tasks whose page is already back
+     * only record their start URL again. The pages are expanded once more to recover start URLs that were
+     * attributed after the page was logged. None of this is logged again, the checkpoint already has it.
+     */
+    private void restoreFromCheckpoint() {
+        for (CrawledPage page : resumeFrom.getPages()) {
+            String normalized = canonicalizer.canonicalize(page.getUrl());
+            if (!visitedPages.add(normalized)) continue;
+            indexPage(normalized, page);
+            resultsList.add(page);
+        }
+        for (CrawledPage page : resultsList) {
+            // In crawl order, so every host gets the same navigation as in the earlier run
+            if (contentIndex != null && !page.isBroken() && page.getLinks() != null) {
+                fingerprint(page);
+                if (page.getDuplicateOf() == null) {
+                    contentIndex.findOrAdd(page.getUrl(), page.getContentHash(), page.getSimHash());
+                }
+            }
+            if (isExpandable(page)) {
+                for (URL root : new ArrayList<>(page.getFromStartUrls())) {
+                    expandLinks(page.getLinks(), page.getDepth(), root, this::offerTask);
+                }
+            }
+            spill(page);
+        }
+        for (CrawlTask task : resumeFrom.getTasks()) {
+            offerTask(task);
+        }
+        // Restored pages were fetched by the earlier run and count against the page budget
+        if (config.getMaxPages() > 0 && claimedPages.addAndGet(resultsList.size()) >= config.getMaxPages()) {
+            stop("page budget of " + config.getMaxPages() + " reached");
+        }
+        logger.info("Resumed %d pages and %d recorded tasks from the checkpoint",
+                resultsList.size(), resumeFrom.getTasks().size());
+        resumeFrom = null;
+    }
+
+    private void markDuplicateContent(CrawledPage page) {
+        if (contentIndex == null || page.isBroken()) return;
+
+        fingerprint(page);
+        String original = contentIndex.findOrAdd(page.getUrl(), page.getContentHash(), page.getSimHash());
+        if (original == null) return;
+        page.setDuplicateOf(original);
+        metrics.recordDuplicateContent();
+        logger.debug("%s duplicates the content of %s", page.getUrl(), original);
+    }
 
+    /**
+     * Fingerprints headings and links, the only content the fetchers extract. Links are normalized first,
+     * so copies of a page that only differ in link variants such as session parameters still match.
+     */
+    private void fingerprint(CrawledPage page) {
+        List<String> links = new ArrayList<>(page.getLinks().size());
         for (String link : page.getLinks()) {
-            String normalizedLink = WebCrawlerUtils.normalizeUrl(link);
-            if (!normalizedLink.isEmpty()) {
-                submitCrawlTask(link, currentDepth + 1, rootStartUrl);
+            String normalized = canonicalizer.canonicalize(link);
+            links.add(normalized.isEmpty() ? link : normalized);
+        }
+        contentIndex.fingerprint(page, WebCrawlerUtils.extractHost(page.getUrl()), links);
+    }
+
+    private static boolean isExpandable(CrawledPage page) {
+        return !page.isBroken() && page.getLinks() != null && page.getDuplicateOf() == null;
+    }
+
+    private void spill(CrawledPage page) {
+        if (pageSpill == null) return;
+        pageSpill.accept(page);
+        // The spill owns headings and links from here on, only what attribution and the report index need stays
+        page.setHeadings(List.of());
+        if (!retainLinks) {
+            page.setLinks(List.of());
+        }
+    }
+
+    private void seedFromPreviousCrawl() {
+        URL defaultRoot = config.getStartUrls().get(0);
+        for (CrawledPage page : previousCrawl.values()) {
+            URL root = page.getFromStartUrls().isEmpty() ? defaultRoot : page.getFromStartUrls().iterator().next();
+            enqueueCrawlTask(page.getUrl(), page.getDepth(), root);
+        }
+    }
+
+    private boolean hasSameLinksAsBefore(String normalizedUrl, CrawledPage page) {
+        if (previousCrawl == null) return false;
+
+        CrawledPage previous = previousCrawl.get(normalizedUrl);
+        // The links of a previous duplicate were never followed
+        if (previous == null || !isExpandable(previous)) return false;
+        return new HashSet<>(previous.getLinks()).equals(new HashSet<>(page.getLinks()));
+    }
+
+    /**
+     * Walks the crawled link graph breadth-first from every start URL and enqueues pages that are reachable
+     * within the depth limit but were never claimed.
+     *
+     * @return The number of enqueued pages.
+     */
+    private int enqueueUnvisitedReachablePages() {
+        int enqueued = 0;
+        for (URL root : config.getStartUrls()) {
+            for (Map.Entry<String, ReachedPage> reached : walkLinkGraph(root).entrySet()) {
+                if (pageIndex.containsKey(reached.getKey()) || visitedPages.contains(reached.getKey())) continue;
+                enqueueCrawlTask(reached.getValue().url, reached.getValue().depth, root);
+                enqueued++;
             }
         }
+        return enqueued;
     }
 
-    private void addStartUrlToExistingPage(String normalizedUrl, URL rootStartUrl) {
-        synchronized (resultsList) {
-            for (CrawledPage page : resultsList) {
-                if (normalizedUrl.equals(WebCrawlerUtils.normalizeUrl(page.getUrl()))) {
-                    page.getFromStartUrls().add(rootStartUrl);
-                    break;
-                }
+    /**
+     * Replaces depth and start URLs of every page with its shortest distance from each start URL, the same
+     * result a full crawl produces, and drops pages no start URL reaches any more.
+     */
+    private List<CrawledPage> applyReachability() {
+        Map<String, Integer> depths = new HashMap<>();
+        Map<String, Set<URL>> roots = new HashMap<>();
+        for (URL root : config.getStartUrls()) {
+            for (Map.Entry<String, ReachedPage> reached : walkLinkGraph(root).entrySet()) {
+                depths.merge(reached.getKey(), reached.getValue().depth, Math::min);
+                roots.computeIfAbsent(reached.getKey(), url -> new HashSet<>()).add(root);
+            }
+        }
+
+        List<CrawledPage> reachable = new ArrayList<>();
+        for (CrawledPage page : resultsList) {
+            String normalized = canonicalizer.canonicalize(page.getUrl());
+            Integer depth = depths.get(normalized);
+            if (depth == null || pageIndex.get(normalized) != page) continue;
+
+            page.setDepth(depth);
+            page.getFromStartUrls().clear();
+            page.getFromStartUrls().addAll(roots.get(normalized));
+            reachable.add(page);
+        }
+        return reachable;
+    }
+
+    private Map<String, ReachedPage> walkLinkGraph(URL root) {
+        Map<String, ReachedPage> reached = new LinkedHashMap<>();
+        String start = canonicalizer.canonicalize(root.toString());
+        if (!shouldCrawl(start, 0)) return reached;
+
+        Deque<String> queue = new ArrayDeque<>();
+        reached.put(start, new ReachedPage(root.toString(), 0));
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            String url = queue.poll();
+            int depth = reached.get(url).depth;
+            CrawledPage page = pageIndex.get(url);
+            if (page == null || !isExpandable(page)) continue;
+
+            for (String link : page.getLinks()) {
+                String normalizedLink = canonicalizer.canonicalize(link);
+                if (reached.containsKey(normalizedLink) || !shouldCrawl(normalizedLink, depth + 1)) continue;
+                reached.put(normalizedLink, new ReachedPage(link, depth + 1));
+                queue.add(normalizedLink);
             }
         }
+        return reached;
+    }
+
+    private CompletableFuture<CrawledPage> processWithinInFlightLimit(String url, int depth) {
+        inFlightRequests.acquireUninterruptibly();
+        CompletableFuture<CrawledPage> fetch;
+        try {
+            fetch = pageProcessor.processPageAsync(url, depth);
+        } catch (RuntimeException e) {
+            inFlightRequests.release();
+            throw e;
+        }
+        return fetch.whenComplete((page, error) -> inFlightRequests.release());
+    }
+
+    private void indexPage(String normalizedUrl, CrawledPage page) {
+        pageIndex.put(normalizedUrl, page);
+        Set<URL> pending = pendingStartUrls.remove(normalizedUrl);
+        if (pending != null) {
+            page.getFromStartUrls().addAll(pending);
+        }
+        Integer pendingDepth = pendingDepths.remove(normalizedUrl);
+        if (pendingDepth != null && page.lowerDepth(pendingDepth)) {
+            depthCorrections.increment();
+        }
+    }
+
+    private void addStartUrlToExistingPage(String normalizedUrl, URL rootStartUrl) {
+        CrawledPage page = pageIndex.get(normalizedUrl);
+        if (page != null) {
+            page.getFromStartUrls().add(rootStartUrl);
+            return;
+        }
+
+        // The page is claimed but still being fetched: park the start URL for indexPage to pick up,
+        // then look again in case the page got indexed in the meantime and the parked entry was missed
+        pendingStartUrls.computeIfAbsent(normalizedUrl, url -> ConcurrentHashMap.newKeySet()).add(rootStartUrl);
+        page = pageIndex.get(normalizedUrl);
+        if (page != null) {
+            page.getFromStartUrls().add(rootStartUrl);
+            pendingStartUrls.remove(normalizedUrl);
+        }
+    }
+
+    /**
+     * Gives a claimed page the depth of a shorter path to it and expands its links again from there, using the
+     * links fetched before: children that are now within the depth limit get enqueued and visited children are
+     * lowered in turn. A page that is still being fetched gets the depth parked for indexPage, the same way
+     * start URLs are. Links a spilled page no longer holds are read back from the spill.
+     */
+    private void lowerDepth(String normalizedUrl, int depth, URL rootStartUrl) {
+        CrawledPage page = pageIndex.get(normalizedUrl);
+        if (page == null) {
+            pendingDepths.merge(normalizedUrl, depth, Math::min);
+            page = pageIndex.get(normalizedUrl);
+            if (page == null) return;
+            pendingDepths.remove(normalizedUrl);
+        }
+        if (!page.lowerDepth(depth)) return;
+
+        depthCorrections.increment();
+        if (!isExpandable(page) || hasSameLinksAsBefore(normalizedUrl, page)) return;
+        expandLinks(linksOf(page), depth, rootStartUrl, this::enqueueCrawlTask);
+    }
+
+    private List<String> linksOf(CrawledPage page) {
+        List<String> links = page.getLinks();
+        // Empty either because the page has no links or because spill() released them after spilling
+        if (!links.isEmpty() || pageSpill == null) return links;
+
+        try {
+            List<String> spilled = pageSpill.readLinks(page.getUrl());
+            return spilled != null ? spilled : links;
+        } catch (IOException e) {
+            logger.warn("Could not read the links of %s back from the spill: %s", page.getUrl(), e.getMessage());
+            return links;
+        }
+    }
+
+    /**
+     * Hands every finished page to the given spill and then drops its headings and links from memory,
+     * see {@link StreamingReportWriter}. Must be set before {@link #crawl()}.
+     */
+    public void setPageSpill(PageSpill pageSpill) {
+        this.pageSpill = pageSpill;
+    }
+
+    /**
+     * Records enqueued tasks and finished pages in the given log so the crawl can be resumed.
+     * Must be set before {@link #crawl()}.
+     */
+    public void setCheckpoint(CheckpointLog checkpoint) {
+        this.checkpoint = checkpoint;
+        checkpoint.setLogger(logger);
+    }
+
+    /**
+     * Continues the crawl recorded in a checkpoint instead of starting over. Must be set before {@link #crawl()}.
+     */
+    public void resumeFrom(CheckpointLog.Recovered recovered) {
+        this.resumeFrom = recovered;
+    }
+
+    /**
+     * Crawls incrementally from the pages of an earlier crawl with the same settings: they are all revisited,
+     * but pages whose links did not change are not expanded again, and depth and start URLs are recomputed
+     * from the resulting link graph. Implies {@link #setRetainLinks}. Must be set before {@link #crawl()}.
+     */
+    public void setPreviousCrawl(List<CrawledPage> pages) {
+        previousCrawl = new HashMap<>();
+        for (CrawledPage page : pages) {
+            previousCrawl.put(canonicalizer.canonicalize(page.getUrl()), page);
+        }
+        retainLinks = true;
+    }
+
+    /**
+     * Keeps links of spilled pages in memory, needed when the crawl graph is saved afterwards.
+     */
+    public void setRetainLinks(boolean retainLinks) {
+        this.retainLinks = retainLinks;
+    }
+
+    /**
+     * Number of pages an incremental crawl found with the same links as in the previous crawl.
+     */
+    public long getUnchangedPages() {
+        return unchangedPages.sum();
+    }
+
+    /**
+     * Number of times a claimed page was reached by a shorter path and got its depth lowered.
+     */
+    public long getDepthCorrections() {
+        return depthCorrections.sum();
+    }
+
+    /**
+     * Number of pages found to duplicate the content of an earlier page.
+     */
+    public long getDuplicateContentPages() {
+        return metrics.getDuplicateContentPages();
     }
 
+    /**
+     * Whether the crawl ended because of the time limit or page budget, with URLs left unvisited.
+     */
+    public boolean isStoppedEarly() {
+        return stopReason != null;
+    }
+
+    /**
+     * Number of links found on crawled pages.
+     */
+    public long getLinksDiscovered() {
+        return metrics.getLinksDiscovered();
+    }
+
+    /**
+     * Number of discovered links dropped before enqueueing because they were too deep, outside the allowed
+     * domains or not absolute URLs.
+     */
+    public long getLinksFiltered() {
+        return metrics.getLinksFiltered();
+    }
+
+    /**
+     * Number of tasks put into the frontier, start URLs included.
+     */
+    public long getTasksEnqueued() {
+        return metrics.getTasksEnqueued();
+    }
+
+    /**
+     * Number of times a worker tried to claim a URL that another worker had already claimed.
+     */
+    public long getDuplicateClaimAttempts() {
+        return metrics.getDuplicateClaims();
+    }
+
+    public CrawlMetrics getMetrics() {
+        return metrics;
+    }
+
+    protected VisitedSet getVisitedPages() {
+        return visitedPages;
+    }
 
     protected boolean shouldCrawl(String url, int currentDepth) {
         if (currentDepth > config.getMaxDepth()) return false;
         if (url.isEmpty()) return false;
 
-        if (!WebCrawlerUtils.isDomainAllowed(url, config.getAllowedDomains())) return false;
+        if (!WebCrawlerUtils.isDomainAllowed(url, config.getDomainMatcher())) return false;
 
         return true;
     }
+
+    protected static VisitedSet createVisitedSet(CrawlerConfig config) {
+        VisitedSet visitedSet = config.getVisitedSetType() == CrawlerConfig.VisitedSetType.FINGERPRINT
+                ? new FingerprintVisitedSet(config.getExpectedUrlCount())
+                : new ExactVisitedSet();
+        if (!config.isBloomFilterEnabled()) return visitedSet;
+
+        BloomFilter filter = new BloomFilter(config.getExpectedUrlCount(), config.getBloomFilterFalsePositiveRate());
+        return new BloomFilteredVisitedSet(visitedSet, filter);
+    }
+
+    protected static LinkScorer createLinkScorer(CrawlerConfig config) {
+        List<LinkScorer> scorers = new ArrayList<>();
+        if (config.isInboundLinkScoring()) {
+            scorers.add(new InboundLinkScorer());
+        }
+        if (!config.getUrlPatternWeights().isEmpty()) {
+            scorers.add(new UrlPatternScorer(config.getUrlPatternWeights()));
+        }
+        return LinkScorer.sum(scorers);
+    }
+
+    protected static ContentFingerprintIndex createContentIndex(CrawlerConfig config) {
+        if (config.getContentDedup() == CrawlerConfig.ContentDedup.OFF) return null;
+        return new ContentFingerprintIndex(config.getContentDedup() == CrawlerConfig.ContentDedup.NEAR,
+                config.getSimHashDistance());
+    }
+
+    protected static ExecutorService createExecutor(CrawlerConfig config, AsyncLogger logger) {
+        if (config.getExecutorMode() == CrawlerConfig.ExecutorMode.VIRTUAL_THREADS) {
+            return newVirtualThreadExecutor(logger);
+        }
+        return Executors.newFixedThreadPool(config.getThreadPoolSize());
+    }
+
+    private static ExecutorService newVirtualThreadExecutor(AsyncLogger logger) {
+        // Looked up reflectively so the crawler still builds and runs on Java 17
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads require Java 21+, falling back to a cached thread pool.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static class ReachedPage {
+        private final String url;
+        private final int depth;
+
+        private ReachedPage(String url, int depth) {
+            this.url = url;
+            this.depth = depth;
+        }
+    }
 }
@@ -1,27 +1,40 @@
 package crawler;
 
-import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.List;
 import java.util.Set;
 
 public class WebCrawlerUtils {
 
+    /**
+     * Canonical form under the default rules; a crawl uses the canonicalizer of its configuration instead.
+     */
     protected static String normalizeUrl(String urlString) {
-        try {
-            URL url = new URL(urlString);
-            String path = url.getPath().replaceAll("/$", "");
-            return url.getProtocol() + "://" + url.getHost() + path;
-        } catch (MalformedURLException e) {
-            return "";
-        }
+        return UrlCanonicalizer.DEFAULT.canonicalize(urlString);
     }
 
     protected static boolean isDomainAllowed(String urlString, Set<String> allowedDomains) {
-        try {
-            URL url = new URL(urlString);
-            return allowedDomains.contains(url.getHost());
-        } catch (MalformedURLException e) {
-            return false;
+        String host = UrlCanonicalizer.extractHost(urlString);
+        return !host.isEmpty() && allowedDomains.contains(host);
+    }
+
+    protected static boolean isDomainAllowed(String urlString, DomainMatcher allowedDomains) {
+        return allowedDomains.matches(UrlCanonicalizer.extractHost(urlString));
+    }
+
+    protected static String extractHost(String urlString) {
+        return UrlCanonicalizer.extractHost(urlString);
+    }
+
+    /**
+     * Position of a task's root in the start URLs, for files that store the root as an index.
+     * Compares the external form, URL.equals would resolve host names.
+     */
+    protected static int indexOfStartUrl(List<URL> startUrls, URL root) throws IllegalArgumentException {
+        for (int i = 0; i < startUrls.size(); i++) {
+            URL startUrl = startUrls.get(i);
+            if (startUrl == root || startUrl.toExternalForm().equals(root.toExternalForm())) return i;
         }
+        throw new IllegalArgumentException("not a start URL: " + root);
     }
 }
@@ -0,0 +1,41 @@
+package crawler.model;
+
+import java.net.URL;
+
+public class CrawlTask {
+    private final String url;
+    private final int depth;
+    private final URL rootStartUrl;
+    private final String normalizedUrl;
+
+    public CrawlTask(String url, int depth, URL rootStartUrl) {
+        this(url, depth, rootStartUrl, null);
+    }
+
+    /**
+     * @param normalizedUrl The canonical form of a URL that already passed the depth and domain checks,
+     *                      or null if the task still has to be checked.
+     */
+    public CrawlTask(String url, int depth, URL rootStartUrl, String normalizedUrl) {
+        this.url = url;
+        this.depth = depth;
+        this.rootStartUrl = rootStartUrl;
+        this.normalizedUrl = normalizedUrl;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public URL getRootStartUrl() {
+        return rootStartUrl;
+    }
+
+    public String getNormalizedUrl() {
+        return normalizedUrl;
+    }
+}
@@ -4,18 +4,22 @@ import java.net.URL;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CrawledPage {
     private String url;
-    private int depth;
+    private final AtomicInteger depth = new AtomicInteger();
     private List<String> headings;
     private List<String> links;
     private boolean isBroken;
     private Set<URL> fromStartUrls = ConcurrentHashMap.newKeySet();
+    private long contentHash;
+    private long simHash;
+    private String duplicateOf;
 
     public CrawledPage(String url, int depth, List<String> headings, List<String> links, boolean isBroken) {
         this.url = url;
-        this.depth = depth;
+        this.depth.set(depth);
         this.headings = headings;
         this.links = links;
         this.isBroken = isBroken;
@@ -31,11 +35,24 @@ public class CrawledPage {
     }
 
     public int getDepth() {
-        return depth;
+        return depth.get();
     }
 
     public void setDepth(int depth) {
-        this.depth = depth;
+        this.depth.set(depth);
+    }
+
+    /**
+     * Atomically lowers the depth, for a page that was reached again by a shorter path.
+     *
+     * @return true if the depth was lowered, false if it already was this low or lower.
+     */
+    public boolean lowerDepth(int depth) {
+        int current;
+        while (depth < (current = this.depth.get())) {
+            if (this.depth.compareAndSet(current, depth)) return true;
+        }
+        return false;
     }
 
     public List<String> getHeadings() {
@@ -69,4 +86,35 @@ public class CrawledPage {
     public void setFromStartUrls(Set<URL> fromStartUrls) {
         this.fromStartUrls = fromStartUrls;
     }
+
+    /**
+     * Hash of the extracted headings and links, 0 if the page was not fingerprinted or has no content.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(long contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public long getSimHash() {
+        return simHash;
+    }
+
+    public void setSimHash(long simHash) {
+        this.simHash = simHash;
+    }
+
+    /**
+     * URL of the page this one has the same or nearly the same content as, or null if it is an original.
+     * The links of duplicates are not followed.
+     */
+    public String getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    public void setDuplicateOf(String duplicateOf) {
+        this.duplicateOf = duplicateOf;
+    }
 }
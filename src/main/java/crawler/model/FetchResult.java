@@ -0,0 +1,37 @@
+package crawler.model;
+
+/**
+ * Outcome of a conditional fetch: either fresh content with the validators the server sent for it,
+ * or a "not modified" answer without content.
+ */
+public class FetchResult {
+    private final PageContent content;
+    private final String etag;
+    private final String lastModified;
+
+    public FetchResult(PageContent content, String etag, String lastModified) {
+        this.content = content;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public static FetchResult notModified() {
+        return new FetchResult(null, null, null);
+    }
+
+    public boolean isNotModified() {
+        return content == null;
+    }
+
+    public PageContent getContent() {
+        return content;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,46 @@
+package crawler.model;
+
+import java.util.List;
+
+public class PageContent {
+    private final List<String> headings;
+    private final List<String> links;
+    private final long bytesRead;
+    private final long parseNanos;
+
+    public PageContent(List<String> headings, List<String> links) {
+        this(headings, links, 0, 0);
+    }
+
+    /**
+     * @param bytesRead  Size of the response body as received.
+     * @param parseNanos Time spent extracting headings and links. When the body is parsed while it is read
+     *                   this includes reading the body.
+     */
+    public PageContent(List<String> headings, List<String> links, long bytesRead, long parseNanos) {
+        this.headings = headings;
+        this.links = links;
+        this.bytesRead = bytesRead;
+        this.parseNanos = parseNanos;
+    }
+
+    public PageContent withFetchStats(long bytesRead, long parseNanos) {
+        return new PageContent(headings, links, bytesRead, parseNanos);
+    }
+
+    public List<String> getHeadings() {
+        return headings;
+    }
+
+    public List<String> getLinks() {
+        return links;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+}
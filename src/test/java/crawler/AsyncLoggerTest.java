@@ -0,0 +1,53 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLoggerTest {
+
+    @Test
+    void printsMessagesAtOrAboveTheLevel() {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        AsyncLogger logger = new AsyncLogger(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8), CrawlerConfig.LogLevel.INFO);
+
+        // Act
+        logger.debug("Crawling at %s (depth %d)", "https://example.com", 1);
+        logger.info("Metrics: %s", "pages=1");
+        logger.error("Crawling task failed: %s", "boom");
+        logger.close();
+        logger.info("after close");
+
+        // Assert
+        assertFalse(logger.isEnabled(CrawlerConfig.LogLevel.DEBUG));
+        assertEquals("Metrics: pages=1" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+        assertEquals("[error] Crawling task failed: boom" + System.lineSeparator(), err.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void debugLevelPrintsEverythingInOrder() {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AsyncLogger logger = new AsyncLogger(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(new ByteArrayOutputStream()), CrawlerConfig.LogLevel.DEBUG);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            logger.debug("line %d", i);
+        }
+        logger.close();
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertEquals(100, lines.length);
+        assertEquals("[debug] line 0", lines[0]);
+        assertEquals("[debug] line 99", lines[99]);
+    }
+}
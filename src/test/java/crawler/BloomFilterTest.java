@@ -0,0 +1,58 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsFalseNegatives() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("https://example.com/" + i);
+        }
+
+        // Assert
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("https://example.com/" + i));
+        }
+    }
+
+    @Test
+    void keepsFalsePositiveRateNearTarget() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("https://example.com/" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("https://other.com/" + i)) falsePositives++;
+        }
+
+        // Assert
+        assertTrue(falsePositives < 2_000, "false positive rate too high: " + falsePositives / 100_000.0);
+    }
+
+    @Test
+    void sizesFilterFromExpectedInsertionsAndRate() {
+        // Act
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        // Assert
+        assertTrue(filter.getBitCount() >= 9_585);
+        assertEquals(7, filter.getHashCount());
+    }
+
+    @Test
+    void rejectsInvalidFalsePositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+}
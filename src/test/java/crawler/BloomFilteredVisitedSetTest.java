@@ -0,0 +1,56 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilteredVisitedSetTest {
+
+    @Test
+    void answersUnseenUrlsFromFilter() {
+        // Arrange
+        BloomFilteredVisitedSet visited = new BloomFilteredVisitedSet(new ExactVisitedSet(), new BloomFilter(1_000, 0.001));
+        visited.add("https://example.com/seen");
+
+        // Act
+        boolean seen = visited.contains("https://example.com/seen");
+        boolean unseen = visited.contains("https://example.com/unseen");
+
+        // Assert
+        assertTrue(seen);
+        assertFalse(unseen);
+        assertEquals(1, visited.getLookupsSaved());
+        assertEquals(0, visited.getFalsePositives());
+    }
+
+    @Test
+    void confirmsPositivesWithWrappedSet() {
+        // Arrange: a single-word filter saturates quickly and produces false positives
+        BloomFilteredVisitedSet visited = new BloomFilteredVisitedSet(new ExactVisitedSet(), new BloomFilter(1, 0.5));
+        for (int i = 0; i < 200; i++) {
+            visited.add("https://example.com/" + i);
+        }
+
+        // Act
+        int reportedAsSeen = 0;
+        for (int i = 0; i < 200; i++) {
+            if (visited.contains("https://other.com/" + i)) reportedAsSeen++;
+        }
+
+        // Assert
+        assertEquals(0, reportedAsSeen);
+        assertTrue(visited.getFalsePositives() > 0);
+        assertEquals(200, visited.getFalsePositives() + visited.getLookupsSaved());
+    }
+
+    @Test
+    void addStillClaimsOnlyOnce() {
+        // Arrange
+        VisitedSet visited = new BloomFilteredVisitedSet(new FingerprintVisitedSet(16), new BloomFilter(16, 0.01));
+
+        // Act & Assert
+        assertTrue(visited.add("https://example.com/a"));
+        assertFalse(visited.add("https://example.com/a"));
+        assertEquals(1, visited.size());
+    }
+}
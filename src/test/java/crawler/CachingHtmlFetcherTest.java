@@ -0,0 +1,102 @@
+package crawler;
+
+import crawler.model.PageContent;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingHtmlFetcherTest {
+
+    private static final String PAGE = "<html><body><h1>Title</h1><a href=\"https://example.com/next\">Next</a></body></html>";
+
+    @TempDir
+    Path cacheDirectory;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void reusesCachedContentWhenServerAnswersNotModified() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setBody(PAGE).setHeader("ETag", "\"v1\"")
+                .setHeader("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        String url = server.url("/page").toString();
+        CachingHtmlFetcher firstRun = new CachingHtmlFetcher(new JsoupHtmlFetcher(5000), new PageCache(cacheDirectory, 1 << 20));
+
+        // Act
+        PageContent fresh = firstRun.fetchContentFromUrl(url);
+        CachingHtmlFetcher secondRun = new CachingHtmlFetcher(new JsoupHtmlFetcher(5000), new PageCache(cacheDirectory, 1 << 20));
+        PageContent revalidated = secondRun.fetchContentFromUrl(url);
+
+        // Assert
+        RecordedRequest unconditional = server.takeRequest();
+        RecordedRequest conditional = server.takeRequest();
+        assertNull(unconditional.getHeader("If-None-Match"));
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", conditional.getHeader("If-Modified-Since"));
+        assertEquals(fresh.getHeadings(), revalidated.getHeadings());
+        assertEquals(List.of("https://example.com/next"), revalidated.getLinks());
+    }
+
+    @Test
+    void replacesCachedContentWhenPageChanged() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setBody(PAGE).setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setBody("<h1>Changed</h1>").setHeader("ETag", "\"v2\""));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        String url = server.url("/page").toString();
+        CachingHtmlFetcher fetcher = new CachingHtmlFetcher(new StreamingHtmlFetcher(5000), new PageCache(cacheDirectory, 1 << 20));
+
+        // Act
+        fetcher.fetchContentFromUrl(url);
+        PageContent changed = fetcher.fetchContentFromUrl(url);
+        PageContent revalidated = fetcher.fetchContentFromUrl(url);
+
+        // Assert
+        server.takeRequest();
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v2\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(List.of("Changed"), changed.getHeadings());
+        assertEquals(List.of("Changed"), revalidated.getHeadings());
+    }
+
+    @Test
+    void doesNotCachePagesWithoutValidators() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setBody(PAGE));
+        server.enqueue(new MockResponse().setBody(PAGE));
+        String url = server.url("/page").toString();
+        PageCache cache = new PageCache(cacheDirectory, 1 << 20);
+        CachingHtmlFetcher fetcher = new CachingHtmlFetcher(new JsoupHtmlFetcher(5000), cache);
+
+        // Act
+        fetcher.fetchContentFromUrl(url);
+        fetcher.fetchContentFromUrl(url);
+
+        // Assert
+        assertEquals(0, cache.size());
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+}
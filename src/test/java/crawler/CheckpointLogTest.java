@@ -0,0 +1,117 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+import crawler.model.CrawledPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversRecordedTasksAndPages() throws Exception {
+        // Arrange
+        URL root = new URL("https://example.com");
+        CrawlerConfig config = new CrawlerConfig(List.of(root), 2, Set.of("https://example.com"));
+        CrawledPage page = new CrawledPage("https://example.com", 0, List.of("Home"), List.of("https://example.com/a"), false);
+        page.getFromStartUrls().add(root);
+        Path file = directory.resolve("crawl.checkpoint");
+
+        // Act
+        try (CheckpointLog log = CheckpointLog.create(file, config, 1000)) {
+            log.taskEnqueued(new CrawlTask("https://example.com/a", 1, root));
+            log.pageFinished(page);
+        }
+        CheckpointLog.Recovered recovered = CheckpointLog.recover(file, config);
+
+        // Assert
+        assertEquals(1, recovered.getTasks().size());
+        assertEquals("https://example.com/a", recovered.getTasks().get(0).getUrl());
+        assertEquals(1, recovered.getTasks().get(0).getDepth());
+        assertEquals(root, recovered.getTasks().get(0).getRootStartUrl());
+        assertEquals(1, recovered.getPages().size());
+        assertEquals(List.of("https://example.com/a"), recovered.getPages().get(0).getLinks());
+        assertEquals(Set.of(root), recovered.getPages().get(0).getFromStartUrls());
+    }
+
+    @Test
+    void dropsRecordCutOffByACrashAndAppendsAfterTheLastCompleteOne() throws Exception {
+        // Arrange
+        URL root = new URL("https://example.com");
+        CrawlerConfig config = new CrawlerConfig(List.of(root), 2, Set.of("https://example.com"));
+        Path file = directory.resolve("crawl.checkpoint");
+        try (CheckpointLog log = CheckpointLog.create(file, config, 1000)) {
+            log.taskEnqueued(new CrawlTask("https://example.com/a", 1, root));
+            log.taskEnqueued(new CrawlTask("https://example.com/b", 1, root));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 3);
+        }
+
+        // Act
+        CheckpointLog.Recovered recovered = CheckpointLog.recover(file, config);
+        try (CheckpointLog log = CheckpointLog.append(file, config, recovered, 1000)) {
+            log.taskEnqueued(new CrawlTask("https://example.com/c", 1, root));
+        }
+        CheckpointLog.Recovered resumed = CheckpointLog.recover(file, config);
+
+        // Assert
+        assertEquals(1, recovered.getTasks().size());
+        assertEquals(List.of("https://example.com/a", "https://example.com/c"),
+                resumed.getTasks().stream().map(CrawlTask::getUrl).toList());
+    }
+
+    @Test
+    void ignoresCheckpointWrittenWithDifferentSettings() throws Exception {
+        // Arrange
+        CrawlerConfig written = new CrawlerConfig(List.of(new URL("https://example.com")), 2, Set.of("https://example.com"));
+        CrawlerConfig deeper = new CrawlerConfig(List.of(new URL("https://example.com")), 3, Set.of("https://example.com"));
+        Path file = directory.resolve("crawl.checkpoint");
+        CheckpointLog.create(file, written, 1000).close();
+
+        // Act
+        CheckpointLog.Recovered recovered = CheckpointLog.recover(file, deeper);
+
+        // Assert
+        assertNull(recovered);
+        assertNull(CheckpointLog.recover(directory.resolve("missing.checkpoint"), written));
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void turnsCheckpointingOffWhenWaitingRecordsExceedTheirBound() throws Exception {
+        // Arrange
+        URL root = new URL("https://example.com");
+        CrawlerConfig config = new CrawlerConfig(List.of(root), 2, Set.of("https://example.com"));
+        Path file = directory.resolve("crawl.checkpoint");
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        AsyncLogger logger = new AsyncLogger(new PrintStream(new ByteArrayOutputStream()), new PrintStream(errors),
+                CrawlerConfig.LogLevel.INFO);
+        CheckpointLog log = CheckpointLog.create(file, config, 1000, 1);
+        log.setLogger(logger);
+
+        // Act
+        log.taskEnqueued(new CrawlTask("https://example.com/a", 1, root));
+        log.taskEnqueued(new CrawlTask("https://example.com/b", 1, root));
+        logger.close();
+
+        // Assert
+        assertThrows(IOException.class, log::close);
+        assertTrue(errors.toString().contains("checkpointing is off"), errors.toString());
+        assertTrue(CheckpointLog.recover(file, config).getTasks().isEmpty());
+    }
+}
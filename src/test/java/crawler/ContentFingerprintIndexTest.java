@@ -0,0 +1,78 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentFingerprintIndexTest {
+
+    @Test
+    void findsExactCopies() {
+        // Arrange
+        ContentFingerprintIndex index = new ContentFingerprintIndex(false, 3);
+
+        // Act
+        String first = index.findOrAdd("https://example.com/a", 42, 0b1111);
+        String copy = index.findOrAdd("https://example.com/a/print", 42, 0b1111);
+        String close = index.findOrAdd("https://example.com/b", 43, 0b1110);
+
+        // Assert
+        assertNull(first);
+        assertEquals("https://example.com/a", copy);
+        assertNull(close, "near duplicates are only found when enabled");
+    }
+
+    @Test
+    void findsNearDuplicatesWithinDistance() {
+        // Arrange
+        ContentFingerprintIndex index = new ContentFingerprintIndex(true, 3);
+        long simHash = 0x0123_4567_89ab_cdefL;
+        index.findOrAdd("https://example.com/a", 1, simHash);
+
+        // Act
+        String near = index.findOrAdd("https://example.com/b", 2, simHash ^ (1L | 1L << 20 | 1L << 63));
+        String far = index.findOrAdd("https://example.com/c", 3, simHash ^ 0xf000_0000_0000_000fL);
+        String copyOfNear = index.findOrAdd("https://example.com/b/print", 2, 0);
+
+        // Assert
+        assertEquals("https://example.com/a", near);
+        assertNull(far);
+        assertEquals("https://example.com/a", copyOfNear);
+    }
+
+    @Test
+    void pagesWithoutContentAreNeverDuplicates() {
+        // Arrange
+        ContentFingerprintIndex index = new ContentFingerprintIndex(true, 3);
+        index.findOrAdd("https://example.com/a", 0, 0);
+
+        // Act & Assert
+        assertNull(index.findOrAdd("https://example.com/b", 0, 0));
+    }
+
+    @Test
+    void similarPagesHaveCloseSimHashes() {
+        // Arrange
+        List<String> links = new java.util.ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            links.add("https://example.com/article/" + i);
+        }
+        List<String> mirrorLinks = new java.util.ArrayList<>(links);
+        mirrorLinks.set(0, "https://example.com/print");
+
+        // Act
+        long original = FingerprintUtils.simHash(List.of("Weekly news digest"), links);
+        long mirror = FingerprintUtils.simHash(List.of("Weekly news digest"), mirrorLinks);
+        long unrelated = FingerprintUtils.simHash(List.of("Contact"), List.of("https://example.com/mail"));
+
+        // Assert
+        assertTrue(Long.bitCount(original ^ mirror) < Long.bitCount(original ^ unrelated));
+    }
+
+    @Test
+    void rejectsInvalidDistance() {
+        assertThrows(IllegalArgumentException.class, () -> new ContentFingerprintIndex(true, 64));
+    }
+}
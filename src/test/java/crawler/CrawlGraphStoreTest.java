@@ -0,0 +1,53 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlGraphStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void savesAndLoadsPagesWithLinks() throws Exception {
+        // Arrange
+        CrawlerConfig config = new CrawlerConfig(List.of(new URL("https://example.com")), 2, Set.of("https://example.com"));
+        CrawledPage page = new CrawledPage("https://example.com", 0, List.of("Home"), List.of("https://example.com/a"), false);
+        page.getFromStartUrls().add(new URL("https://example.com"));
+        Path file = directory.resolve("crawl.graph");
+
+        // Act
+        CrawlGraphStore.save(file, config, List.of(page));
+        List<CrawledPage> loaded = CrawlGraphStore.load(file, config);
+
+        // Assert
+        assertEquals(1, loaded.size());
+        assertEquals("https://example.com", loaded.get(0).getUrl());
+        assertEquals(List.of("https://example.com/a"), loaded.get(0).getLinks());
+        assertEquals(Set.of(new URL("https://example.com")), loaded.get(0).getFromStartUrls());
+    }
+
+    @Test
+    void ignoresGraphSavedWithDifferentSettings() throws Exception {
+        // Arrange
+        CrawlerConfig saved = new CrawlerConfig(List.of(new URL("https://example.com")), 2, Set.of("https://example.com"));
+        CrawlerConfig deeper = new CrawlerConfig(List.of(new URL("https://example.com")), 3, Set.of("https://example.com"));
+        Path file = directory.resolve("crawl.graph");
+        CrawlGraphStore.save(file, saved, List.of());
+
+        // Act
+        List<CrawledPage> loaded = CrawlGraphStore.load(file, deeper);
+
+        // Assert
+        assertNull(loaded);
+        assertNull(CrawlGraphStore.load(directory.resolve("missing.graph"), saved));
+    }
+}
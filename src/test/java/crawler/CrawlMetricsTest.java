@@ -0,0 +1,60 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlMetricsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void summarizesRecordedPages() {
+        // Arrange
+        CrawlMetrics metrics = new CrawlMetrics();
+        metrics.setQueueDepth(() -> 42);
+
+        // Act
+        metrics.recordPage(TimeUnit.MILLISECONDS.toNanos(120), TimeUnit.MILLISECONDS.toNanos(3), 2_000_000);
+        metrics.recordFetchError("slow.com", TimeUnit.SECONDS.toNanos(5));
+        metrics.recordFetchError("slow.com", TimeUnit.SECONDS.toNanos(5));
+        metrics.recordDuplicateClaim();
+        metrics.recordKnownLink();
+        String summary = metrics.summaryLine();
+
+        // Assert
+        assertEquals(3, metrics.getPagesFetched());
+        assertEquals(2, metrics.getDedupHits());
+        assertEquals(Map.of("slow.com", 2L), metrics.getFetchErrorsByHost());
+        assertTrue(summary.startsWith("pages=3 "), summary);
+        assertTrue(summary.contains("errors=2 queue=42 active=0"), summary);
+        assertTrue(summary.contains("downloaded=2.0MB dedup=2"), summary);
+    }
+
+    @Test
+    void writesJsonSnapshot() throws Exception {
+        // Arrange
+        CrawlMetrics metrics = new CrawlMetrics();
+        metrics.recordPage(TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(1), 100);
+        metrics.recordFetchError("we\"ird.com", 0);
+        Path file = directory.resolve("metrics.json");
+
+        // Act
+        metrics.writeSnapshot(file);
+        String json = Files.readString(file);
+
+        // Assert
+        assertTrue(json.contains("\"pagesFetched\": 2,"), json);
+        assertTrue(json.contains("\"bytesDownloaded\": 100,"), json);
+        assertTrue(json.contains("\"fetchLatencyMillis\": {\"count\": 2,"), json);
+        assertTrue(json.contains("\"fetchErrorsByHost\": {\"we\\\"ird.com\": 1}"), json);
+        assertTrue(json.trim().startsWith("{") && json.trim().endsWith("}"), json);
+    }
+}
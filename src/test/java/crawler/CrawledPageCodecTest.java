@@ -0,0 +1,58 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawledPageCodecTest {
+
+    @Test
+    void roundTripsAllFields() throws IOException {
+        // Arrange
+        CrawledPage page = new CrawledPage("https://example.com/ä", 2, List.of("Überschrift"), List.of("https://example.com/a"), true);
+        page.getFromStartUrls().add(new URL("https://example.com"));
+        page.setContentHash(42);
+        page.setSimHash(-7);
+        page.setDuplicateOf("https://example.com/original");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // Act
+        CrawledPageCodec.write(new DataOutputStream(bytes), page);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        CrawledPage read = CrawledPageCodec.read(in);
+
+        // Assert
+        assertEquals(page.getUrl(), read.getUrl());
+        assertEquals(2, read.getDepth());
+        assertTrue(read.isBroken());
+        assertEquals(List.of("Überschrift"), read.getHeadings());
+        assertEquals(List.of("https://example.com/a"), read.getLinks());
+        assertEquals(Set.of("https://example.com"), Set.of(read.getFromStartUrls().iterator().next().toExternalForm()));
+        assertEquals(42, read.getContentHash());
+        assertEquals(-7, read.getSimHash());
+        assertEquals("https://example.com/original", read.getDuplicateOf());
+        assertNull(CrawledPageCodec.read(in), "stream should end after the only record");
+    }
+
+    @Test
+    void preservesNullLists() throws IOException {
+        // Arrange
+        CrawledPage page = new CrawledPage();
+        page.setUrl("https://example.com");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // Act
+        CrawledPageCodec.write(new DataOutputStream(bytes), page);
+        CrawledPage read = CrawledPageCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // Assert
+        assertNull(read.getHeadings());
+        assertNull(read.getLinks());
+    }
+}
@@ -42,6 +42,21 @@ class CrawlerConfigTest {
         assertTrue(config.getAllowedDomains().contains("example.com"));
     }
 
+    @Test
+    void shouldAcceptWildcardDomains() throws MalformedURLException {
+        // Arrange
+        ArrayList<URL> startUrl = new ArrayList<>();
+        startUrl.add(new URL("https://test.com"));
+        Set<String> domains = Set.of("https://*.Example.com");
+
+        // Act
+        CrawlerConfig config = new CrawlerConfig(startUrl, 1, domains);
+
+        // Assert
+        assertTrue(config.getAllowedDomains().contains("*.example.com"));
+        assertTrue(config.getDomainMatcher().matches("blog.example.com"));
+    }
+
     @Test
     void shouldThrowOnInvalidDomain() throws MalformedURLException {
         // Arrange
@@ -0,0 +1,37 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainMatcherTest {
+
+    @Test
+    void plainDomainMatchesOnlyThatHost() {
+        // Arrange
+        DomainMatcher matcher = new DomainMatcher(Set.of("example.com"));
+
+        // Act & Assert
+        assertTrue(matcher.matches("example.com"));
+        assertFalse(matcher.matches("www.example.com"));
+        assertFalse(matcher.matches("notexample.com"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void wildcardDomainMatchesDomainAndSubdomains() {
+        // Arrange
+        DomainMatcher matcher = new DomainMatcher(Set.of("*.example.com", "other.org"));
+
+        // Act & Assert
+        assertTrue(matcher.matches("example.com"));
+        assertTrue(matcher.matches("www.example.com"));
+        assertTrue(matcher.matches("a.b.example.com"));
+        assertTrue(matcher.matches("other.org"));
+        assertFalse(matcher.matches("badexample.com"));
+        assertFalse(matcher.matches("example.com.evil.net"));
+        assertFalse(matcher.matches("www.other.org"));
+    }
+}
@@ -0,0 +1,40 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExactVisitedSetTest {
+
+    @Test
+    void addClaimsUrlOnlyOnce() {
+        // Arrange
+        VisitedSet visited = new ExactVisitedSet();
+
+        // Act
+        boolean first = visited.add("https://example.com/a");
+        boolean second = visited.add("https://example.com/a");
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(visited.contains("https://example.com/a"));
+        assertFalse(visited.contains("https://example.com/b"));
+        assertEquals(1, visited.size());
+    }
+
+    @Test
+    void memoryGrowsWithUrlLength() {
+        // Arrange
+        VisitedSet shortUrls = new ExactVisitedSet();
+        VisitedSet longUrls = new ExactVisitedSet();
+
+        // Act
+        shortUrls.add("https://a.com/1");
+        longUrls.add("https://a.com/" + "x".repeat(200));
+
+        // Assert
+        assertEquals(200 - 1, longUrls.memoryFootprintBytes() - shortUrls.memoryFootprintBytes());
+        assertTrue(shortUrls.bytesPerUrl() > 80);
+    }
+}
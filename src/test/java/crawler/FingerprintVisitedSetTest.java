@@ -0,0 +1,92 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintVisitedSetTest {
+
+    @Test
+    void addClaimsUrlOnlyOnce() {
+        // Arrange
+        VisitedSet visited = new FingerprintVisitedSet(16);
+
+        // Act
+        boolean first = visited.add("https://example.com/a");
+        boolean second = visited.add("https://example.com/a");
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(visited.contains("https://example.com/a"));
+        assertFalse(visited.contains("https://example.com/b"));
+        assertEquals(1, visited.size());
+    }
+
+    @Test
+    void keepsAcceptingUrlsBeyondExpectedSize() {
+        // Arrange
+        VisitedSet visited = new FingerprintVisitedSet(8);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(visited.add("https://example.com/" + i));
+        }
+
+        // Assert
+        assertEquals(1000, visited.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(visited.contains("https://example.com/" + i));
+            assertFalse(visited.add("https://example.com/" + i));
+        }
+    }
+
+    @Test
+    void usesSixteenBytesPerUrlAtExpectedSize() {
+        // Arrange
+        // A power of two, so the table is not rounded up past twice the expected size
+        int expected = 8192;
+        VisitedSet visited = new FingerprintVisitedSet(expected);
+
+        // Act
+        for (int i = 0; i < expected; i++) {
+            visited.add("https://example.com/some/fairly/long/path/" + i);
+        }
+
+        // Assert
+        assertEquals(16.0, visited.bytesPerUrl());
+    }
+
+    @Test
+    void concurrentClaimsHaveExactlyOneWinner() throws Exception {
+        // Arrange
+        VisitedSet visited = new FingerprintVisitedSet(1024);
+        AtomicInteger winners = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int thread = 0; thread < 64; thread++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    if (visited.add("https://example.com/" + i)) winners.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        pool.shutdown();
+
+        // Assert
+        assertEquals(500, winners.get());
+        assertEquals(500, visited.size());
+    }
+}
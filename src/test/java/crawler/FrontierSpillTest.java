@@ -0,0 +1,63 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrontierSpillTest {
+
+    @Test
+    void returnsTasksInArrivalOrderAcrossSegments() throws Exception {
+        // Arrange
+        URL first = new URL("https://example.com");
+        URL second = new URL("https://other.com");
+        FrontierSpill spill = new FrontierSpill(List.of(first, second), 64);
+        for (int i = 0; i < 10; i++) {
+            spill.add(new CrawlTask("https://example.com/page-" + i, i, i % 2 == 0 ? first : second));
+        }
+        int segmentsWhenFull = spill.getSegmentCount();
+
+        // Act
+        List<CrawlTask> tasks = new ArrayList<>();
+        CrawlTask task;
+        while ((task = spill.poll()) != null) {
+            tasks.add(task);
+        }
+
+        // Assert
+        assertTrue(segmentsWhenFull > 1);
+        assertEquals(10, tasks.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("https://example.com/page-" + i, tasks.get(i).getUrl());
+            assertEquals(i, tasks.get(i).getDepth());
+            assertSame(i % 2 == 0 ? first : second, tasks.get(i).getRootStartUrl());
+        }
+        assertEquals(1, spill.getSegmentCount(), "segments that were read completely are deleted");
+        spill.close();
+    }
+
+    @Test
+    void storesUrlsLongerThanASegment() throws Exception {
+        // Arrange
+        URL root = new URL("https://example.com");
+        FrontierSpill spill = new FrontierSpill(List.of(root), 64);
+        String longUrl = "https://example.com/" + "ü".repeat(100);
+
+        // Act
+        spill.add(new CrawlTask("https://example.com/short", 1, root));
+        spill.add(new CrawlTask(longUrl, 2, root));
+
+        // Assert
+        assertEquals(2, spill.size());
+        assertEquals("https://example.com/short", spill.poll().getUrl());
+        assertEquals(longUrl, spill.poll().getUrl());
+        assertNull(spill.poll());
+        assertTrue(spill.isEmpty());
+        spill.close();
+    }
+}
@@ -0,0 +1,190 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostFrontierTest {
+
+    private CrawlerConfig config;
+    private URL root;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = new URL("https://slow.com");
+        config = new CrawlerConfig(List.of(root), 2, Set.of("https://slow.com", "https://fast.com"));
+    }
+
+    @Test
+    void throttledHostDoesNotBlockOtherHosts() {
+        // Arrange
+        config.setRequestsPerSecondForHost("slow.com", 1);
+        config.setRequestsPerSecondForHost("fast.com", 0);
+        HostFrontier frontier = new HostFrontier(config);
+        frontier.offer(task("https://slow.com/1"));
+        frontier.offer(task("https://slow.com/2"));
+        frontier.offer(task("https://fast.com/1"));
+        frontier.offer(task("https://fast.com/2"));
+        long now = System.nanoTime();
+
+        // Act
+        CrawlTask first = frontier.poll(now);
+        CrawlTask second = frontier.poll(now);
+        CrawlTask third = frontier.poll(now);
+        CrawlTask fourth = frontier.poll(now);
+
+        // Assert
+        assertEquals("https://slow.com/1", first.getUrl());
+        assertEquals("https://fast.com/1", second.getUrl());
+        assertEquals("https://fast.com/2", third.getUrl());
+        assertNull(fourth, "slow.com has used its only token");
+        assertEquals(1, frontier.size());
+        assertTrue(frontier.nanosUntilReady(now) > 0);
+    }
+
+    @Test
+    void respectsMaxConnectionsPerHost() {
+        // Arrange
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxConnectionsPerHost(1);
+        HostFrontier frontier = new HostFrontier(config);
+        frontier.offer(task("https://slow.com/1"));
+        frontier.offer(task("https://slow.com/2"));
+        long now = System.nanoTime();
+
+        // Act
+        CrawlTask first = frontier.poll(now);
+        CrawlTask blocked = frontier.poll(now);
+        frontier.release(first, true);
+        CrawlTask second = frontier.poll(now);
+
+        // Assert
+        assertNotNull(first);
+        assertNull(blocked);
+        assertEquals("https://slow.com/2", second.getUrl());
+        assertTrue(frontier.isEmpty());
+    }
+
+    @Test
+    void skippedTaskGetsTokenBack() {
+        // Arrange
+        config.setRequestsPerSecondPerHost(1);
+        HostFrontier frontier = new HostFrontier(config);
+        frontier.offer(task("https://slow.com/1"));
+        frontier.offer(task("https://slow.com/2"));
+        long now = System.nanoTime();
+
+        // Act
+        CrawlTask duplicate = frontier.poll(now);
+        frontier.release(duplicate, false);
+        CrawlTask next = frontier.poll(now);
+
+        // Assert
+        assertEquals("https://slow.com/2", next.getUrl());
+    }
+
+    @Test
+    void spillsTasksBeyondMemoryLimitAndReadsThemBackInOrder() throws Exception {
+        // Arrange
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxConnectionsPerHost(100);
+        config.setFrontierMemoryLimit(2);
+        HostFrontier frontier = new HostFrontier(config, LinkScorer.NONE, new FrontierSpill(config.getStartUrls(), 64));
+        for (int i = 1; i <= 6; i++) {
+            frontier.offer(task("https://slow.com/" + i));
+        }
+        long now = System.nanoTime();
+
+        // Act
+        List<String> polled = new java.util.ArrayList<>();
+        CrawlTask task;
+        while ((task = frontier.poll(now)) != null) {
+            polled.add(task.getUrl());
+        }
+        frontier.close();
+
+        // Assert
+        assertEquals(4, frontier.getSpilledTasks());
+        assertEquals(List.of("https://slow.com/1", "https://slow.com/2", "https://slow.com/3",
+                "https://slow.com/4", "https://slow.com/5", "https://slow.com/6"), polled);
+        assertTrue(frontier.isEmpty());
+    }
+
+    @Test
+    void handsOutShallowerTasksFirst() {
+        // Arrange
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxConnectionsPerHost(100);
+        HostFrontier frontier = new HostFrontier(config);
+        frontier.offer(new CrawlTask("https://slow.com/deep", 3, root));
+        frontier.offer(new CrawlTask("https://fast.com/middle", 2, root));
+        frontier.offer(new CrawlTask("https://slow.com/shallow", 1, root));
+        long now = System.nanoTime();
+
+        // Act
+        List<String> polled = pollAll(frontier, now);
+
+        // Assert
+        assertEquals(List.of("https://slow.com/shallow", "https://fast.com/middle", "https://slow.com/deep"), polled);
+    }
+
+    @Test
+    void handsOutHigherScoresFirstWithinDepth() {
+        // Arrange
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxConnectionsPerHost(100);
+        LinkScorer scorer = task -> task.getUrl().contains("important") ? 1 : 0;
+        HostFrontier frontier = new HostFrontier(config, scorer);
+        frontier.offer(task("https://slow.com/1"));
+        frontier.offer(task("https://slow.com/important"));
+        frontier.offer(task("https://slow.com/2"));
+        frontier.offer(new CrawlTask("https://slow.com/important-but-deep", 2, root));
+        long now = System.nanoTime();
+
+        // Act
+        List<String> polled = pollAll(frontier, now);
+
+        // Assert
+        assertEquals(List.of("https://slow.com/important", "https://slow.com/1", "https://slow.com/2",
+                "https://slow.com/important-but-deep"), polled);
+    }
+
+    @Test
+    void hostsWithEquallyRankedTasksTakeTurns() {
+        // Arrange
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxConnectionsPerHost(100);
+        HostFrontier frontier = new HostFrontier(config);
+        frontier.offer(task("https://slow.com/1"));
+        frontier.offer(task("https://slow.com/2"));
+        frontier.offer(task("https://fast.com/1"));
+        frontier.offer(task("https://fast.com/2"));
+        long now = System.nanoTime();
+
+        // Act
+        List<String> polled = pollAll(frontier, now);
+
+        // Assert
+        assertEquals(List.of("https://slow.com/1", "https://fast.com/1", "https://slow.com/2", "https://fast.com/2"),
+                polled);
+    }
+
+    private List<String> pollAll(HostFrontier frontier, long now) {
+        List<String> polled = new java.util.ArrayList<>();
+        CrawlTask task;
+        while ((task = frontier.poll(now)) != null) {
+            polled.add(task.getUrl());
+        }
+        return polled;
+    }
+
+    private CrawlTask task(String url) {
+        return new CrawlTask(url, 1, root);
+    }
+}
@@ -0,0 +1,135 @@
+package crawler;
+
+import crawler.model.PageContent;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientHtmlFetcherTest {
+
+    private static final String PAGE = """
+            <html><body><h1>Title</h1><a href="/next">Next</a></body></html>
+            """;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void fetchesContentAsynchronously() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setBody(PAGE).setHeader("Content-Type", "text/html; charset=utf-8"));
+        HttpClientHtmlFetcher fetcher = new HttpClientHtmlFetcher(5000, CrawlerConfig.ParserMode.DOM);
+
+        // Act
+        PageContent content = fetcher.fetchContentAsync(server.url("/page").toString()).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(List.of("Title"), content.getHeadings());
+        assertEquals(List.of(server.url("/next").toString()), content.getLinks());
+    }
+
+    @Test
+    void streamingParserModeExtractsTheSameContent() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setBody(PAGE).setHeader("Content-Type", "text/html"));
+        HttpClientHtmlFetcher fetcher = new HttpClientHtmlFetcher(5000, CrawlerConfig.ParserMode.STREAMING);
+
+        // Act
+        PageContent content = fetcher.fetchContentFromUrl(server.url("/page").toString());
+
+        // Assert
+        assertEquals(List.of("Title"), content.getHeadings());
+        assertEquals(List.of(server.url("/next").toString()), content.getLinks());
+    }
+
+    @Test
+    void failsOnErrorStatusAndNonHtmlContent() {
+        // Arrange
+        server.enqueue(new MockResponse().setResponseCode(500).setBody(PAGE));
+        server.enqueue(new MockResponse().setBody("{}").setHeader("Content-Type", "application/json"));
+        HttpClientHtmlFetcher fetcher = new HttpClientHtmlFetcher(5000, CrawlerConfig.ParserMode.DOM);
+
+        // Act
+        CompletableFuture<PageContent> error = fetcher.fetchContentAsync(server.url("/error").toString());
+        CompletableFuture<PageContent> json = fetcher.fetchContentAsync(server.url("/json").toString());
+
+        // Assert
+        assertThrows(ExecutionException.class, () -> error.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> json.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void overlapsSlowRequests() throws Exception {
+        // Arrange
+        int requests = 50;
+        for (int i = 0; i < requests; i++) {
+            server.enqueue(new MockResponse().setBody(PAGE).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        }
+        HttpClientHtmlFetcher fetcher = new HttpClientHtmlFetcher(5000, CrawlerConfig.ParserMode.DOM);
+
+        // Act
+        long start = System.nanoTime();
+        List<CompletableFuture<PageContent>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            futures.add(fetcher.fetchContentAsync(server.url("/page" + i).toString()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertEquals(requests, server.getRequestCount());
+        assertTrue(elapsedMillis < requests * 200L / 4, "requests were not overlapped, took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void cutsOffBodiesBeyondTheLimit() throws Exception {
+        // Arrange
+        String page = "<html><body><h1>Title</h1>" + "<p>filler</p>".repeat(1000) + "<h2>Late</h2></body></html>";
+        server.enqueue(new MockResponse().setBody(page).setHeader("Content-Type", "text/html"));
+        HttpClientHtmlFetcher fetcher = new HttpClientHtmlFetcher(5000, CrawlerConfig.ParserMode.DOM, 1024);
+
+        // Act
+        PageContent content = fetcher.fetchContentAsync(server.url("/page").toString()).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1024, content.getBytesRead());
+        assertEquals(List.of("Title"), content.getHeadings());
+    }
+
+    @Test
+    void closeStopsTheFetcherThreads() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setBody(PAGE).setHeader("Content-Type", "text/html"));
+        HttpClientHtmlFetcher fetcher = new HttpClientHtmlFetcher(5000, CrawlerConfig.ParserMode.DOM);
+        fetcher.fetchContentFromUrl(server.url("/page").toString());
+
+        // Act
+        fetcher.close();
+
+        // Assert
+        assertThrows(RejectedExecutionException.class, () -> fetcher.fetchContentAsync(server.url("/page").toString())
+                .get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,52 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsKeepValuesWithinSixPercent() {
+        for (long micros = 0; micros < 10_000_000; micros = micros * 3 / 2 + 1) {
+            // Act
+            int index = LatencyHistogram.bucketIndex(micros);
+            long upperBound = LatencyHistogram.bucketUpperBound(index);
+
+            // Assert
+            assertTrue(upperBound >= micros, "bucket of " + micros + " ends at " + upperBound);
+            assertTrue(upperBound - micros <= Math.max(micros / 16, 1), "bucket of " + micros + " ends at " + upperBound);
+            assertEquals(index, LatencyHistogram.bucketIndex(upperBound));
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void reportsPercentilesMeanAndMax() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // Act
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        // Assert
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMeanMillis(), 0.01);
+        assertEquals(100, histogram.getMaxMillis(), 0.01);
+        assertEquals(50, histogram.getPercentileMillis(50), 50 / 16.0);
+        assertEquals(99, histogram.getPercentileMillis(99), 99 / 16.0);
+        assertEquals(100, histogram.getPercentileMillis(100), 0.01);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentileMillis(99));
+        assertEquals(0, histogram.getMeanMillis());
+    }
+}
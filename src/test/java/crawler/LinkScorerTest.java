@@ -0,0 +1,63 @@
+package crawler;
+
+import crawler.model.CrawlTask;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkScorerTest {
+
+    @Test
+    void inboundLinkScorerCountsLinksUntilPageIsClaimed() throws Exception {
+        // Arrange
+        InboundLinkScorer scorer = new InboundLinkScorer();
+        CrawlTask task = task("https://example.com/popular");
+
+        // Act
+        scorer.linkDiscovered("https://example.com/popular");
+        scorer.linkDiscovered("https://example.com/popular");
+        double beforeClaim = scorer.score(task);
+        scorer.pageClaimed("https://example.com/popular");
+
+        // Assert
+        assertEquals(2, beforeClaim);
+        assertEquals(0, scorer.score(task));
+    }
+
+    @Test
+    void urlPatternScorerSumsMatchingWeights() throws Exception {
+        // Arrange
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("/docs/", 10.0);
+        weights.put("\\?page=", -5.0);
+        UrlPatternScorer scorer = new UrlPatternScorer(weights);
+
+        // Act & Assert
+        assertEquals(10, scorer.score(task("https://example.com/docs/intro")));
+        assertEquals(5, scorer.score(task("https://example.com/docs/list?page=2")));
+        assertEquals(0, scorer.score(task("https://example.com/about")));
+    }
+
+    @Test
+    void sumAddsScoresAndForwardsEvents() throws Exception {
+        // Arrange
+        InboundLinkScorer inbound = new InboundLinkScorer();
+        LinkScorer scorer = LinkScorer.sum(List.of(inbound, new UrlPatternScorer(Map.of("/docs/", 10.0))));
+
+        // Act
+        scorer.linkDiscovered("https://example.com/docs/intro");
+
+        // Assert
+        assertEquals(11, scorer.score(task("https://example.com/docs/intro")));
+        assertSame(LinkScorer.NONE, LinkScorer.sum(List.of()));
+    }
+
+    private CrawlTask task(String url) throws Exception {
+        return new CrawlTask(url, 1, new URL("https://example.com"), url);
+    }
+}
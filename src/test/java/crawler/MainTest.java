@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.net.URL;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -116,4 +117,121 @@ class MainTest {
         CrawlerConfig config = Main.buildConfigFromArgs(args);
         assertNull(config);
     }
+
+    @Test
+    void applyOptions_shouldConfigureExecutor() throws Exception {
+        // Arrange
+        CrawlerConfig config = new CrawlerConfig(List.of(new URL("https://example.com")), 1, Set.of("https://example.com"));
+
+        // Act
+        Main.applyOptions(config, new String[]{"--virtual-threads", "--threads=4", "--max-in-flight=500",
+                "--host-rate=2.5", "--host-connections=3", "--visited-set=fingerprint", "--expected-urls=1000",
+                "--bloom-filter", "--bloom-fpp=0.001", "--parser=streaming", "--idle-timeout=5",
+                "--cache-dir=/tmp/crawler-cache", "--cache-size-mb=64", "--state-file=/tmp/crawl.graph", "--incremental",
+                "--checkpoint=/tmp/crawl.checkpoint", "--checkpoint-interval=30", "--resume",
+                "--frontier-memory=5000", "--time-limit=60", "--max-pages=100",
+                "--log-level=debug", "--metrics-interval=0", "--metrics-file=/tmp/metrics.json",
+                "--inbound-link-score", "--url-weight=/docs/:10", "--url-weight=https?://[^/]+/blog:-2.5",
+                "--content-dedup=near", "--simhash-distance=2", "--strip-params=utm_*,ref",
+                "--url-rule=shop.example.com:keep=id", "--url-rule=*.example.org:drop-query"});
+
+        // Assert
+        assertEquals(CrawlerConfig.ExecutorMode.VIRTUAL_THREADS, config.getExecutorMode());
+        assertEquals(4, config.getThreadPoolSize());
+        assertEquals(500, config.getMaxInFlightRequests());
+        assertEquals(2.5, config.getRequestsPerSecondPerHost());
+        assertEquals(3, config.getMaxConnectionsPerHost());
+        assertEquals(CrawlerConfig.VisitedSetType.FINGERPRINT, config.getVisitedSetType());
+        assertEquals(1000, config.getExpectedUrlCount());
+        assertTrue(config.isBloomFilterEnabled());
+        assertEquals(0.001, config.getBloomFilterFalsePositiveRate());
+        assertEquals(CrawlerConfig.ParserMode.STREAMING, config.getParserMode());
+        assertEquals(5, config.getConnectionIdleTimeoutSeconds());
+        assertEquals("/tmp/crawler-cache", config.getCacheDirectory());
+        assertEquals(64, config.getCacheSizeMb());
+        assertEquals("/tmp/crawl.graph", config.getStateFile());
+        assertTrue(config.isIncremental());
+        assertEquals("/tmp/crawl.checkpoint", config.getCheckpointFile());
+        assertEquals(30, config.getCheckpointIntervalSeconds());
+        assertTrue(config.isResume());
+        assertEquals(5000, config.getFrontierMemoryLimit());
+        assertEquals(60, config.getTimeLimitSeconds());
+        assertEquals(100, config.getMaxPages());
+        assertEquals(CrawlerConfig.LogLevel.DEBUG, config.getLogLevel());
+        assertEquals(0, config.getMetricsIntervalSeconds());
+        assertEquals("/tmp/metrics.json", config.getMetricsFile());
+        assertTrue(config.isInboundLinkScoring());
+        assertEquals(Map.of("/docs/", 10.0, "https?://[^/]+/blog", -2.5), config.getUrlPatternWeights());
+        assertEquals(CrawlerConfig.ContentDedup.NEAR, config.getContentDedup());
+        assertEquals(2, config.getSimHashDistance());
+        assertEquals(List.of("utm_*", "ref"), config.getStrippedQueryParams());
+        assertEquals(List.of("shop.example.com:keep=id", "*.example.org:drop-query"), config.getUrlRules());
+    }
+
+    @Test
+    void applyOptions_shouldRejectUrlWeightWithoutWeight() throws Exception {
+        // Arrange
+        CrawlerConfig config = new CrawlerConfig(List.of(new URL("https://example.com")), 1, Set.of("https://example.com"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> Main.applyOptions(config, new String[]{"--url-weight=/docs/"}));
+        assertThrows(IllegalArgumentException.class, () -> Main.applyOptions(config, new String[]{"--url-weight=([:1"}));
+    }
+
+    @Test
+    void applyOptions_shouldLimitExpectedUrlCountToTheLargestTable() throws Exception {
+        // Arrange
+        CrawlerConfig config = new CrawlerConfig(List.of(new URL("https://example.com")), 1, Set.of("https://example.com"));
+
+        // Act
+        Main.applyOptions(config, new String[]{"--expected-urls=536870912"});
+
+        // Assert
+        assertEquals(536_870_912L, config.getExpectedUrlCount());
+        assertThrows(IllegalArgumentException.class,
+                () -> Main.applyOptions(config, new String[]{"--expected-urls=536870913"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> Main.applyOptions(config, new String[]{"--expected-urls=5000000000"}));
+    }
+
+    @Test
+    void applyOptions_shouldRequireCacheForIncrementalCrawl() throws Exception {
+        // Arrange
+        CrawlerConfig config = new CrawlerConfig(List.of(new URL("https://example.com")), 1, Set.of("https://example.com"));
+        CrawlerConfig uncachedConfig = new CrawlerConfig(List.of(new URL("https://example.com")), 1, Set.of("https://example.com"));
+
+        // Act
+        Main.applyOptions(config, new String[]{"--state-file=/tmp/crawl.graph", "--cache-dir=/tmp/crawler-cache", "--incremental"});
+
+        // Assert
+        assertTrue(config.isIncremental());
+        assertThrows(IllegalArgumentException.class,
+                () -> Main.applyOptions(uncachedConfig, new String[]{"--state-file=/tmp/crawl.graph", "--incremental"}));
+    }
+
+    @Test
+    void applyOptions_shouldSelectFetcher() throws Exception {
+        // Arrange
+        CrawlerConfig asyncConfig = new CrawlerConfig(List.of(new URL("https://example.com")), 1, Set.of("https://example.com"));
+        CrawlerConfig pooledConfig = new CrawlerConfig(List.of(new URL("https://example.com")), 1, Set.of("https://example.com"));
+        CrawlerConfig bothConfig = new CrawlerConfig(List.of(new URL("https://example.com")), 1, Set.of("https://example.com"));
+
+        // Act
+        Main.applyOptions(asyncConfig, new String[]{"--async-fetch"});
+        Main.applyOptions(pooledConfig, new String[]{"--connection-pool"});
+
+        // Assert
+        assertTrue(asyncConfig.isAsyncFetch());
+        assertTrue(pooledConfig.isConnectionPooling());
+        assertThrows(IllegalArgumentException.class,
+                () -> Main.applyOptions(bothConfig, new String[]{"--async-fetch", "--connection-pool"}));
+    }
+
+    @Test
+    void buildConfigFromArgs_shouldReturnNullForUnknownOption() {
+        String[] args = {"https://example.com", "1", "https://example.com", "--bogus"};
+
+        CrawlerConfig config = Main.buildConfigFromArgs(args);
+        assertNull(config);
+    }
 }
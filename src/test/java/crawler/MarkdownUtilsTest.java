@@ -3,7 +3,9 @@ package crawler;
 import crawler.model.CrawledPage;
 import org.junit.jupiter.api.Test;
 
+import java.net.URL;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,6 +48,18 @@ class MarkdownUtilsTest {
         assertEquals("https://example.com/test", normalized);
     }
 
+    @Test
+    void normalizeUrl_agreesWithCrawlerNormalization() {
+        // arrange
+        String url = "https://Example.com:8080/page/?tab=2#section";
+
+        // act
+        String normalized = MarkdownUtils.normalizeUrl(url);
+
+        // assert
+        assertEquals(WebCrawlerUtils.normalizeUrl(url), normalized);
+    }
+
     @Test
     void normalizeUrl_returnsEmptyOnNull() {
         // arrange
@@ -164,6 +178,42 @@ class MarkdownUtilsTest {
         assertFalse(result);
     }
 
+    @Test
+    void isLinkBroken_matchesNormalizedPageUrl() {
+        // arrange
+        CrawledPage page = new CrawledPage();
+        page.setUrl("https://broken.com/page/");
+        page.setBroken(true);
+
+        // act
+        Set<String> brokenUrls = MarkdownUtils.indexBrokenPages(List.of(page), UrlCanonicalizer.DEFAULT);
+
+        // assert
+        assertEquals(Set.of("https://broken.com/page"), brokenUrls);
+        assertTrue(MarkdownUtils.isLinkBroken("https://broken.com/page", brokenUrls, UrlCanonicalizer.DEFAULT));
+    }
+
+    @Test
+    void groupByStartUrl_groupsAndSortsByDepth() throws Exception {
+        // arrange
+        URL first = new URL("https://first.com");
+        URL second = new URL("https://second.com");
+        CrawledPage deep = new CrawledPage("https://first.com/deep", 2, List.of(), List.of(), false);
+        deep.getFromStartUrls().add(first);
+        CrawledPage shared = new CrawledPage("https://shared.com", 1, List.of(), List.of(), false);
+        shared.getFromStartUrls().addAll(List.of(first, second));
+        CrawledPage unknownRoot = new CrawledPage("https://other.com", 0, List.of(), List.of(), false);
+        unknownRoot.getFromStartUrls().add(new URL("https://other.com"));
+
+        // act
+        Map<String, List<CrawledPage>> groups = MarkdownUtils.groupByStartUrl(List.of(deep, shared, unknownRoot), List.of(first, second));
+
+        // assert
+        assertEquals(List.of("https://first.com", "https://second.com"), List.copyOf(groups.keySet()));
+        assertEquals(List.of(shared, deep), groups.get("https://first.com"));
+        assertEquals(List.of(shared), groups.get("https://second.com"));
+    }
+
     @Test
     void indent_returnsCorrectWhitespace() {
         // act & assert
@@ -57,6 +57,22 @@ class MarkdownWriterTest {
         assertTrue(output.contains("❌ broken"));
     }
 
+    @Test
+    void marksDuplicatePages() throws IOException {
+        CrawledPage page = createBasicPage();
+        page.setDuplicateOf("https://example.com/original");
+        Path file = tempDir.resolve("report-duplicate.md");
+
+        new MarkdownWriter().write(
+                List.of(page),
+                file.toString(),
+                List.of(URI.create("https://example.com").toURL())
+        );
+
+        String output = Files.readString(file);
+        assertTrue(output.contains("- Duplicate of https://example.com/original, links not followed"));
+    }
+
     @Test
     void doesNotWriteEmptyHeadingsOrLinks() throws IOException {
         CrawledPage page = createEmptyPage();
@@ -104,6 +120,25 @@ class MarkdownWriterTest {
         assertEquals(2, count, "Link should only appear twice, once as text and once as a link");
     }
 
+    @Test
+    void listsLinksInTheCanonicalFormOfItsRules() throws IOException {
+        CrawledPage page = createBasicPage();
+        page.setLinks(List.of("https://example.com/about?page=1", "https://example.com/about?page=2"));
+        Path file = tempDir.resolve("report-rules.md");
+        UrlCanonicalizer dropQuery = new UrlCanonicalizer(
+                new CanonicalizationRules(List.of(), List.of("example.com:drop-query")));
+
+        new MarkdownWriter(dropQuery).write(
+                List.of(page),
+                file.toString(),
+                List.of(URI.create(page.getUrl()).toURL())
+        );
+
+        String output = Files.readString(file);
+        assertTrue(output.contains("[https://example.com/about](https://example.com/about)"));
+        assertFalse(output.contains("?page="));
+    }
+
     // ---------- Utility Methods ----------
 
     private static CrawledPage createBasicPage() {
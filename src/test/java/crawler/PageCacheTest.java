@@ -0,0 +1,106 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesAndReadsEntries() throws Exception {
+        // Arrange
+        PageCache cache = new PageCache(directory, 1 << 20);
+        PageCache.Entry entry = new PageCache.Entry("https://example.com/a", "\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT",
+                List.of("Heading"), List.of("https://example.com/b"));
+
+        // Act
+        cache.put("https://example.com/a", entry);
+        PageCache.Entry read = cache.get("https://example.com/a");
+
+        // Assert
+        assertEquals("\"v1\"", read.getEtag());
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", read.getLastModified());
+        assertEquals(List.of("Heading"), read.getHeadings());
+        assertEquals(List.of("https://example.com/b"), read.getLinks());
+        assertNull(cache.get("https://example.com/missing"));
+    }
+
+    @Test
+    void keepsEntriesAcrossRestarts() throws Exception {
+        // Arrange
+        new PageCache(directory, 1 << 20).put("https://example.com/a",
+                new PageCache.Entry("https://example.com/a", "\"v1\"", null, List.of(), List.of()));
+
+        // Act
+        PageCache reopened = new PageCache(directory, 1 << 20);
+
+        // Assert
+        assertEquals(1, reopened.size());
+        assertEquals("\"v1\"", reopened.get("https://example.com/a").getEtag());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondSizeBound() throws Exception {
+        // Arrange
+        PageCache cache = new PageCache(directory, 1 << 20);
+        cache.put("https://example.com/0", entry("https://example.com/0"));
+        long entrySize = cache.getTotalBytes();
+        cache = new PageCache(directory, entrySize * 3);
+        cache.put("https://example.com/1", entry("https://example.com/1"));
+        cache.put("https://example.com/2", entry("https://example.com/2"));
+
+        // Act
+        cache.get("https://example.com/0");
+        cache.put("https://example.com/3", entry("https://example.com/3"));
+
+        // Assert
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get("https://example.com/0"));
+        assertNull(cache.get("https://example.com/1"));
+        assertNotNull(cache.get("https://example.com/3"));
+        assertTrue(cache.getTotalBytes() <= entrySize * 3);
+    }
+
+    @Test
+    void removesEntries() throws Exception {
+        // Arrange
+        PageCache cache = new PageCache(directory, 1 << 20);
+        cache.put("https://example.com/a", entry("https://example.com/a"));
+
+        // Act
+        cache.remove("https://example.com/a");
+
+        // Assert
+        assertNull(cache.get("https://example.com/a"));
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void countsWritesThatFailInsteadOfPrinting() throws Exception {
+        // Arrange
+        Path cacheDirectory = directory.resolve("cache");
+        PageCache cache = new PageCache(cacheDirectory, 1 << 20);
+        Files.delete(cacheDirectory);
+
+        // Act
+        cache.put("https://example.com/a", entry("https://example.com/a"));
+
+        // Assert
+        assertEquals(1, cache.getFailures());
+        assertNotNull(cache.getLastFailure());
+        assertNull(cache.get("https://example.com/a"));
+    }
+
+    private static PageCache.Entry entry(String url) {
+        return new PageCache.Entry(url, "\"etag\"", null, List.of("Heading"), List.of(url + "/child"));
+    }
+}
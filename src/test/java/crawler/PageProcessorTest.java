@@ -140,4 +140,88 @@ class PageProcessorTest {
         assertEquals(2, result.getLinks().size());
     }
 
+    @Test
+    void keepsHeadingsAndLinksInDocumentOrder() {
+        // Arrange
+        server.enqueue(new MockResponse().setBody("""
+            <html><body>
+              <h3>First</h3>
+              <a href="/b">B</a>
+              <h1>Second</h1>
+              <div><a href="/a">A</a><h6>Third</h6></div>
+              <h7>Not a heading</h7>
+              <a>No href</a>
+            </body></html>
+        """));
+        String testUrl = server.url("/order").toString();
+
+        // Act
+        CrawledPage result = processor.processPage(testUrl, 0);
+
+        // Assert
+        assertEquals(List.of("First", "Second", "Third"), result.getHeadings());
+        assertEquals(List.of(server.url("/b").toString(), server.url("/a").toString()), result.getLinks());
+    }
+
+    @Test
+    void streamingFetcherExtractsSameContentAsDomFetcher() {
+        // Arrange
+        String body = """
+            <html><body>
+              <h1>Title</h1><a href="/one">One</a>
+              <h2>Caf&eacute;</h2><a href="https://example.com/two">Two</a>
+            </body></html>
+        """;
+        server.enqueue(new MockResponse().setBody(body).setHeader("Content-Type", "text/html; charset=utf-8"));
+        server.enqueue(new MockResponse().setBody(body).setHeader("Content-Type", "text/html; charset=utf-8"));
+        String testUrl = server.url("/same").toString();
+        PageProcessor streamingProcessor = new PageProcessor(new StreamingHtmlFetcher(5000));
+
+        // Act
+        CrawledPage parsed = processor.processPage(testUrl, 0);
+        CrawledPage streamed = streamingProcessor.processPage(testUrl, 0);
+
+        // Assert
+        assertFalse(streamed.isBroken());
+        assertEquals(List.of("Title", "Café"), streamed.getHeadings());
+        assertEquals(parsed.getHeadings(), streamed.getHeadings());
+        assertEquals(parsed.getLinks(), streamed.getLinks());
+    }
+
+    @Test
+    void streamingFetcherMarksErrorResponsesAsBroken() {
+        // Arrange
+        server.enqueue(new MockResponse().setResponseCode(404).setBody("<a href=\"/x\">x</a>"));
+        String testUrl = server.url("/missing").toString();
+        PageProcessor streamingProcessor = new PageProcessor(new StreamingHtmlFetcher(5000));
+
+        // Act
+        CrawledPage result = streamingProcessor.processPage(testUrl, 0);
+
+        // Assert
+        assertTrue(result.isBroken());
+        assertTrue(result.getLinks().isEmpty());
+    }
+
+    @Test
+    void recordsFetchMetrics() {
+        // Arrange
+        String body = "<html><body><h1>Title</h1><a href=\"/next\">Next</a></body></html>";
+        server.enqueue(new MockResponse().setBody(body).setHeader("Content-Type", "text/html"));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        CrawlMetrics metrics = new CrawlMetrics();
+        PageProcessor measuredProcessor = new PageProcessor(new JsoupHtmlFetcher(5000), metrics);
+
+        // Act
+        measuredProcessor.processPage(server.url("/page").toString(), 0);
+        measuredProcessor.processPage(server.url("/error").toString(), 0);
+
+        // Assert
+        assertEquals(2, metrics.getPagesFetched());
+        assertEquals(1, metrics.getBrokenPages());
+        assertEquals(body.length(), metrics.getBytesDownloaded());
+        assertEquals(2, metrics.getFetchLatency().getCount());
+        assertEquals(1, metrics.getParseTime().getCount());
+        assertEquals(java.util.Map.of(server.getHostName(), 1L), metrics.getFetchErrorsByHost());
+    }
 }
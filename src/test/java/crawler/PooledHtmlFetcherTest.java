@@ -0,0 +1,168 @@
+package crawler;
+
+import crawler.model.FetchResult;
+import crawler.model.PageContent;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledHtmlFetcherTest {
+
+    private static final String PAGE = "<html><body><h1>Title</h1><a href=\"/next\">Next</a></body></html>";
+
+    private HandshakeCertificates serverCertificates;
+    private HandshakeCertificates clientCertificates;
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String localhost = InetAddress.getByName("localhost").getCanonicalHostName();
+        HeldCertificate certificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName(localhost)
+                .build();
+        serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(certificate)
+                .build();
+        clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(certificate.certificate())
+                .build();
+        server = startHttpsServer();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void reusesOneTlsConnectionForSequentialRequests() throws Exception {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            server.enqueue(new MockResponse().setBody(PAGE));
+        }
+        PooledHtmlFetcher fetcher = createFetcher(30_000);
+
+        // Act
+        PageContent content = null;
+        for (int i = 0; i < 10; i++) {
+            content = fetcher.fetchContentFromUrl(server.url("/page" + i).toString());
+        }
+
+        // Assert
+        assertEquals(List.of("Title"), content.getHeadings());
+        assertEquals(10, fetcher.getMetrics().getRequests());
+        assertEquals(1, fetcher.getMetrics().getConnectionsOpened());
+        assertEquals(1, fetcher.getMetrics().getTlsHandshakes());
+        assertEquals(0.9, fetcher.getMetrics().getReuseRatio(), 1e-9);
+    }
+
+    @Test
+    void closesConnectionsAfterIdleTimeout() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setBody(PAGE));
+        server.enqueue(new MockResponse().setBody(PAGE));
+        PooledHtmlFetcher fetcher = createFetcher(100);
+
+        // Act
+        fetcher.fetchContentFromUrl(server.url("/first").toString());
+        Thread.sleep(500);
+        fetcher.fetchContentFromUrl(server.url("/second").toString());
+
+        // Assert
+        assertEquals(2, fetcher.getMetrics().getConnectionsOpened());
+        assertEquals(0, fetcher.getMetrics().getReuseRatio());
+    }
+
+    @Test
+    void keepsASeparatePoolPerHost() throws Exception {
+        // Arrange
+        MockWebServer otherServer = startHttpsServer();
+        try {
+            server.enqueue(new MockResponse().setBody(PAGE));
+            server.enqueue(new MockResponse().setBody(PAGE));
+            otherServer.enqueue(new MockResponse().setBody(PAGE));
+            PooledHtmlFetcher fetcher = createFetcher(30_000);
+
+            // Act
+            fetcher.fetchContentFromUrl(server.url("/a").toString());
+            fetcher.fetchContentFromUrl(otherServer.url("/b").toString());
+            fetcher.fetchContentFromUrl(server.url("/c").toString());
+
+            // Assert
+            assertEquals(2, fetcher.getHostPoolCount());
+            assertEquals(2, fetcher.getMetrics().getConnectionsOpened());
+        } finally {
+            otherServer.shutdown();
+        }
+    }
+
+    @Test
+    void dropsPoolsOfHostsIdleForLongerThanTheTimeout() throws Exception {
+        // Arrange
+        MockWebServer otherServer = startHttpsServer();
+        try {
+            server.enqueue(new MockResponse().setBody(PAGE));
+            otherServer.enqueue(new MockResponse().setBody(PAGE));
+            PooledHtmlFetcher fetcher = createFetcher(100);
+
+            // Act
+            fetcher.fetchContentFromUrl(server.url("/a").toString());
+            Thread.sleep(300);
+            fetcher.fetchContentFromUrl(otherServer.url("/b").toString());
+
+            // Assert
+            assertEquals(1, fetcher.getHostPoolCount());
+        } finally {
+            otherServer.shutdown();
+        }
+    }
+
+    @Test
+    void sendsValidatorsAndReportsNotModified() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setResponseCode(304));
+        PooledHtmlFetcher fetcher = createFetcher(30_000);
+
+        // Act
+        FetchResult result = fetcher.fetchContentIfModified(server.url("/page").toString(), "\"v1\"", null);
+
+        // Assert
+        assertTrue(result.isNotModified());
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    void failsOnErrorStatus() {
+        // Arrange
+        server.enqueue(new MockResponse().setResponseCode(404));
+        PooledHtmlFetcher fetcher = createFetcher(30_000);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> fetcher.fetchContentFromUrl(server.url("/missing").toString()));
+    }
+
+    private MockWebServer startHttpsServer() throws IOException {
+        MockWebServer httpsServer = new MockWebServer();
+        httpsServer.useHttps(serverCertificates.sslSocketFactory(), false);
+        httpsServer.start();
+        return httpsServer;
+    }
+
+    private PooledHtmlFetcher createFetcher(long idleTimeoutMillis) {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .sslSocketFactory(clientCertificates.sslSocketFactory(), clientCertificates.trustManager())
+                .build();
+        return new PooledHtmlFetcher(client, 4, idleTimeoutMillis, CrawlerConfig.ParserMode.STREAMING);
+    }
+}
@@ -0,0 +1,142 @@
+package crawler;
+
+import crawler.model.PageContent;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingContentExtractorTest {
+
+    private static final String BASE_URI = "https://example.com/dir/page";
+
+    @Test
+    void extractsHeadingsAndLinksInDocumentOrder() throws IOException {
+        // Arrange
+        String html = """
+            <html><body>
+              <h2>Second level</h2>
+              <a href="/a">A</a>
+              <h1>  Spaced
+                 out  </h1>
+              <a href="relative">B</a>
+            </body></html>
+            """;
+
+        // Act
+        PageContent content = StreamingContentExtractor.extract(new StringReader(html), BASE_URI);
+
+        // Assert
+        assertEquals(List.of("Second level", "Spaced out"), content.getHeadings());
+        assertEquals(List.of("https://example.com/a", "https://example.com/dir/relative"), content.getLinks());
+    }
+
+    @Test
+    void skipsCommentsScriptsAndStyles() throws IOException {
+        // Arrange
+        String html = """
+            <!DOCTYPE html><html><head>
+            <script>var s = "<a href='/script'>x</a><h1>no</h1>";</script>
+            <style>h1 { color: red }</style>
+            </head><body>
+            <!-- <a href="/comment">hidden</a> <h1>hidden</h1> -->
+            <h1>Visible</h1><a href="/real">Real</a>
+            </body></html>
+            """;
+
+        // Act
+        PageContent content = StreamingContentExtractor.extract(new StringReader(html), BASE_URI);
+
+        // Assert
+        assertEquals(List.of("Visible"), content.getHeadings());
+        assertEquals(List.of("https://example.com/real"), content.getLinks());
+    }
+
+    @Test
+    void decodesEntitiesAndHonoursBaseHref() throws IOException {
+        // Arrange
+        String html = """
+            <html><head><base href="https://other.org/root/"></head><body>
+            <h3>Fish &amp; Chips&nbsp;&#8364;</h3>
+            <a href='page?a=1&amp;b=2'>x</a>
+            <a href=page?a=1&copy=2>y</a>
+            </body></html>
+            """;
+
+        // Act
+        PageContent content = StreamingContentExtractor.extract(new StringReader(html), BASE_URI);
+
+        // Assert
+        assertEquals(List.of("Fish & Chips €"), content.getHeadings());
+        assertEquals(List.of("https://other.org/root/page?a=1&b=2", "https://other.org/root/page?a=1&copy=2"),
+                content.getLinks());
+    }
+
+    @Test
+    void matchesDomExtractionOnMalformedMarkup() throws IOException {
+        // Arrange
+        String html = """
+            <body><H1 class=title>Title <span>with</span><br>break</H1>
+            <a  HREF = "/upper" >Upper</a><a href>empty</a><a name="anchor">no href</a>
+            <h2>Unclosed <a href="/inside">inside</a>
+            <h3></h3><p>1 < 2 and 3 > 2</p>
+            <a href="/last"
+            """;
+
+        // Act
+        PageContent streamed = StreamingContentExtractor.extract(new StringReader(html), BASE_URI);
+        PageContent parsed = DomContentExtractor.extract(Jsoup.parse(html, BASE_URI));
+
+        // Assert
+        assertEquals(parsed.getHeadings(), streamed.getHeadings());
+        assertEquals(parsed.getLinks(), streamed.getLinks());
+    }
+
+    @Test
+    void resolvesUnusualLinksLikeDomExtraction() throws IOException {
+        // Arrange
+        String html = """
+            <base href="//other.org/base/">
+            <a href="?page=2">query</a><a href="//cdn.example.org/x">protocol relative</a>
+            <a href="../up/./here">dots</a><a href=" spaced path ">spaces</a><a href="#top">fragment</a>
+            <a href="mailto:someone@example.com">mail</a><a href="tel:+431234">tel</a><a href="http://[bad">bad</a>
+            """;
+
+        // Act
+        PageContent streamed = StreamingContentExtractor.extract(new StringReader(html), BASE_URI);
+        PageContent parsed = DomContentExtractor.extract(Jsoup.parse(html, BASE_URI));
+
+        // Assert
+        assertEquals(parsed.getLinks(), streamed.getLinks());
+    }
+
+    @Test
+    void matchesDomExtractionAcrossBufferBoundaries() throws IOException {
+        // Arrange
+        String html = SyntheticCorpusPages.page(2_000);
+
+        // Act
+        PageContent streamed = StreamingContentExtractor.extract(new StringReader(html), BASE_URI);
+        PageContent parsed = DomContentExtractor.extract(Jsoup.parse(html, BASE_URI));
+
+        // Assert
+        assertEquals(parsed.getHeadings(), streamed.getHeadings());
+        assertEquals(parsed.getLinks(), streamed.getLinks());
+    }
+
+    private static class SyntheticCorpusPages {
+        static String page(int sections) {
+            StringBuilder html = new StringBuilder("<html><body>");
+            for (int i = 0; i < sections; i++) {
+                html.append("<h").append(1 + i % 6).append(">Heading &amp; ").append(i).append("</h").append(1 + i % 6).append('>')
+                        .append("<p>Some text <a href=\"/page/").append(i).append("?x=").append(i).append("&amp;y=1\">link</a></p>")
+                        .append("<!-- comment ").append(i).append(" -->");
+            }
+            return html.append("</body></html>").toString();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package crawler;
+
+import crawler.model.CrawledPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingReportWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void producesSameReportAsMarkdownWriter() throws IOException {
+        // Arrange
+        URL first = toUrl("https://example.com");
+        URL second = toUrl("https://example.com/second");
+        List<CrawledPage> pages = new ArrayList<>();
+        pages.add(page("https://example.com/deep", 2, List.of("https://example.com"), false, first));
+        pages.add(page("https://example.com", 0, List.of("https://example.com/broken", "https://example.com/deep"), false, first));
+        pages.add(page("https://example.com/broken", 1, List.of(), true, first, second));
+        pages.add(page("https://example.com/second", 0, List.of("https://example.com/broken"), false, second));
+        Path expected = tempDir.resolve("expected.md");
+        Path actual = tempDir.resolve("actual.md");
+        new MarkdownWriter().write(pages, expected.toString(), List.of(first, second));
+
+        // Act
+        try (StreamingReportWriter writer = new StreamingReportWriter(tempDir.resolve("crawl.spill"))) {
+            for (CrawledPage page : pages) {
+                writer.accept(page);
+                page.setHeadings(List.of());
+                page.setLinks(List.of());
+            }
+            writer.write(pages, actual.toString(), List.of(first, second));
+        }
+
+        // Assert
+        assertEquals(Files.readString(expected), Files.readString(actual));
+        assertTrue(Files.readString(actual).contains("❌ broken"));
+    }
+
+    @Test
+    void usesFinalDepthInsteadOfDepthAtSpillTime() throws IOException {
+        // Arrange
+        URL root = toUrl("https://example.com");
+        CrawledPage page = page("https://example.com/page", 3, List.of(), false, root);
+        Path report = tempDir.resolve("report.md");
+
+        // Act
+        try (StreamingReportWriter writer = new StreamingReportWriter(tempDir.resolve("crawl.spill"))) {
+            writer.accept(page);
+            page.setDepth(1);
+            writer.write(List.of(page), report.toString(), List.of(root));
+        }
+
+        // Assert
+        assertTrue(Files.readString(report).contains("  ### → https://example.com/page"));
+    }
+
+    @Test
+    void deletesSpillFileOnClose() throws IOException {
+        // Arrange
+        Path spill = tempDir.resolve("crawl.spill");
+
+        // Act
+        new StreamingReportWriter(spill).close();
+
+        // Assert
+        assertFalse(Files.exists(spill));
+    }
+
+    private static CrawledPage page(String url, int depth, List<String> links, boolean broken, URL... roots) {
+        CrawledPage page = new CrawledPage(url, depth, broken ? List.of() : List.of("Heading of " + url), links, broken);
+        page.getFromStartUrls().addAll(List.of(roots));
+        return page;
+    }
+
+    private static URL toUrl(String url) {
+        try {
+            return URI.create(url).toURL();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstUpToRateThenBlocks() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, 0);
+
+        // Act & Assert
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+    }
+
+    @Test
+    void refillsOverTime() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        // Act
+        long wait = bucket.nanosUntilAvailable(0);
+
+        // Assert
+        assertEquals(SECOND / 2, wait);
+        assertFalse(bucket.tryAcquire(SECOND / 4));
+        assertTrue(bucket.tryAcquire(SECOND / 2));
+    }
+
+    @Test
+    void refundReturnsUnusedToken() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1, 0);
+        bucket.tryAcquire(0);
+
+        // Act
+        bucket.refund();
+
+        // Assert
+        assertTrue(bucket.tryAcquire(0));
+    }
+
+    @Test
+    void zeroRateIsUnlimited() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(0, 0);
+
+        // Act & Assert
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(bucket.tryAcquire(0));
+        }
+        assertEquals(0, bucket.nanosUntilAvailable(0));
+    }
+}
@@ -0,0 +1,134 @@
+package crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlCanonicalizerTest {
+
+    @Test
+    void canonicalize_keepsPortAndQueryButDropsUserInfoFragmentAndTrailingSlash() {
+        // Act
+        String canonical = UrlCanonicalizer.DEFAULT.canonicalize("https://user:pw@Example.COM:8443/Path/To/?q=1#top");
+
+        // Assert
+        assertEquals("https://example.com:8443/Path/To?q=1", canonical);
+    }
+
+    @Test
+    void canonicalize_dropsDefaultPorts() {
+        assertEquals("https://example.com/a", UrlCanonicalizer.DEFAULT.canonicalize("https://example.com:443/a"));
+        assertEquals("http://example.com/a", UrlCanonicalizer.DEFAULT.canonicalize("HTTP://example.com:80/a"));
+        assertEquals("http://example.com:443/a", UrlCanonicalizer.DEFAULT.canonicalize("http://example.com:443/a"));
+        assertEquals("https://example.com/a", UrlCanonicalizer.DEFAULT.canonicalize("https://example.com:/a"));
+    }
+
+    @Test
+    void canonicalize_sortsQueryAndStripsTrackingParams() {
+        assertEquals("https://example.com/list?a=1&page=2",
+                UrlCanonicalizer.DEFAULT.canonicalize("https://example.com/list?page=2&utm_source=mail&a=1&SessionId=abc"));
+        assertEquals("https://example.com/list",
+                UrlCanonicalizer.DEFAULT.canonicalize("https://example.com/list?utm_campaign=x&&sessionid=1"));
+        assertEquals("https://example.com/list?flag",
+                UrlCanonicalizer.DEFAULT.canonicalize("https://example.com/list?flag#top"));
+    }
+
+    @Test
+    void canonicalForm_appliesDomainRules() {
+        // Arrange
+        CanonicalizationRules rules = new CanonicalizationRules(List.of("utm_*"), List.of(
+                "shop.example.com:keep=id", "*.news.org:drop-query", "example.com:strip=ref,sort"));
+
+        // Act & Assert
+        assertEquals("https://shop.example.com/item?id=7",
+                canonicalForm("https://shop.example.com/item?color=red&id=7", rules));
+        assertEquals("https://www.news.org/story", canonicalForm("https://www.news.org/story?page=3", rules));
+        assertEquals("https://news.org/story", canonicalForm("https://news.org/story?page=3", rules));
+        assertEquals("https://example.com/a?q=x", canonicalForm("https://example.com/a?sort=asc&q=x&ref=home&utm_id=1", rules));
+        assertEquals("https://other.com/a?ref=home&sort=asc", canonicalForm("https://other.com/a?sort=asc&ref=home", rules));
+    }
+
+    @Test
+    void rules_rejectMalformedOrConflictingRules() {
+        assertThrows(IllegalArgumentException.class, () -> new CanonicalizationRules(List.of(), List.of("example.com")));
+        assertThrows(IllegalArgumentException.class, () -> new CanonicalizationRules(List.of(), List.of("example.com:sort")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CanonicalizationRules(List.of(), List.of("example.com:drop-query", "example.com:keep=id")));
+    }
+
+    @Test
+    void canonicalize_handlesBareHost() {
+        assertEquals("https://example.com", UrlCanonicalizer.DEFAULT.canonicalize("https://example.com"));
+        assertEquals("https://example.com", UrlCanonicalizer.DEFAULT.canonicalize("https://example.com/"));
+        assertEquals("https://example.com?x=1", UrlCanonicalizer.DEFAULT.canonicalize("https://example.com?x=1"));
+        assertEquals("https://example.com", UrlCanonicalizer.DEFAULT.canonicalize("https://example.com#frag"));
+    }
+
+    @Test
+    void canonicalize_trimsSurroundingWhitespace() {
+        assertEquals("http://example.com/a", UrlCanonicalizer.DEFAULT.canonicalize("  http://example.com/a/ \n"));
+    }
+
+    @Test
+    void canonicalize_rejectsNonAbsoluteOrHostlessUrls() {
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize(null));
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize(""));
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize("this_is_not_a_url"));
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize("/relative/path"));
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize("mailto:someone@example.com"));
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize("javascript:void(0)"));
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize("https:///path"));
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize("https://example.com:99999/"));
+        assertEquals("", UrlCanonicalizer.DEFAULT.canonicalize("https://example.com:80a/"));
+    }
+
+    @Test
+    void canonicalize_keepsIpv6Host() {
+        assertEquals("http://[::1]:8080/index", UrlCanonicalizer.DEFAULT.canonicalize("http://[::1]:8080/index"));
+    }
+
+    @Test
+    void canonicalize_agreesWithJavaNetUrlOnTypicalLinks() throws MalformedURLException {
+        List<String> links = List.of(
+                "https://example.com/",
+                "https://example.com/a/b/c.html",
+                "https://example.com/a/b/?page=2",
+                "http://www.example.org:8080/x#section",
+                "https://example.com/search?q=a/b#c/d",
+                "https://example.com//double//slashes//");
+        for (String link : links) {
+            URL url = new URL(link);
+            String port = url.getPort() == -1 || url.getPort() == url.getDefaultPort() ? "" : ":" + url.getPort();
+            String query = url.getQuery() == null ? "" : "?" + url.getQuery();
+            String expected = url.getProtocol() + "://" + url.getHost() + port + url.getPath().replaceAll("/$", "") + query;
+            assertEquals(expected, UrlCanonicalizer.DEFAULT.canonicalize(link), link);
+        }
+    }
+
+    @Test
+    void parse_exposesAllComponents() {
+        // Act
+        UrlCanonicalizer.Parts parts = UrlCanonicalizer.parse("HTTPS://Shop.Example.com:8080/cart/?b=2&a=1#summary");
+
+        // Assert
+        assertEquals("https", parts.scheme());
+        assertEquals("shop.example.com", parts.host());
+        assertEquals(8080, parts.port());
+        assertEquals("/cart/", parts.path());
+        assertEquals("b=2&a=1", parts.query());
+    }
+
+    @Test
+    void extractHost_lowercasesHostAndIgnoresUserInfo() {
+        assertEquals("example.com", UrlCanonicalizer.extractHost("https://me@Example.com:81/x"));
+        assertEquals("", UrlCanonicalizer.extractHost("ht!tp:/nope"));
+    }
+
+    private static String canonicalForm(String url, CanonicalizationRules rules) {
+        return new UrlCanonicalizer(rules).canonicalForm(UrlCanonicalizer.parse(url));
+    }
+}
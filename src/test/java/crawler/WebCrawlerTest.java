@@ -1,16 +1,30 @@
 package crawler;
 
+import crawler.model.CrawlTask;
 import crawler.model.CrawledPage;
 import crawler.HtmlFetcher;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -91,9 +105,742 @@ class WebCrawlerTest {
         assertEquals("https://example.com", result.get(0).getUrl());
     }
 
+    @Test
+    void filtersLinksBeforeEnqueueing() {
+        // Arrange
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://other.com/x",
+                "mailto:someone@example.com", "https://example.com"), false);
+        processor.stubPage("https://example.com/a", List.of("https://example.com/b"), false);
+        processor.stubPage("https://example.com/b", List.of("https://example.com/too-deep"), false);
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals(6, crawler.getLinksDiscovered());
+        assertEquals(3, crawler.getLinksFiltered(), "other domain, mailto and the link beyond max depth");
+        assertEquals(3, crawler.getTasksEnqueued(), "start URL, /a and /b");
+        assertFalse(processor.processedUrls.contains("https://example.com/too-deep"));
+    }
+
+    @Test
+    void reportsCrawlMetrics(@TempDir Path directory) throws Exception {
+        // Arrange
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com"), false);
+        processor.stubPage("https://example.com/a", List.of("https://example.com"), false);
+        Path snapshot = directory.resolve("metrics.json");
+        config.setMetricsFile(snapshot.toString());
+        crawler = new WebCrawler(config, processor);
+
+        // Act
+        crawler.crawl();
+
+        // Assert
+        CrawlMetrics metrics = crawler.getMetrics();
+        assertEquals(2, metrics.getDedupHits(), "both links back to the start page");
+        assertEquals(0, metrics.getActiveWorkers());
+        assertEquals(0, metrics.getQueueDepth());
+        assertTrue(java.nio.file.Files.readString(snapshot).contains("\"dedupHits\": 2,"));
+    }
+
+    @Test
+    void crawlsSubdomainsOfWildcardDomain() throws MalformedURLException {
+        // Arrange
+        CrawlerConfig wildcard = new CrawlerConfig(List.of(new URL("https://example.com")), 2, Set.of("https://*.example.com"));
+        processor.stubPage("https://example.com", List.of("https://blog.example.com", "https://example.org"), false);
+        processor.stubPage("https://blog.example.com", List.of(), false);
+        WebCrawler wildcardCrawler = new WebCrawler(wildcard, processor);
+
+        // Act
+        List<CrawledPage> result = wildcardCrawler.crawl();
+
+        // Assert
+        assertEquals(Map.of("https://example.com", 0, "https://blog.example.com", 1), depthsByUrl(result));
+    }
+
+    @Test
+    void crawlsWithVirtualThreadExecutor() {
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com/b"), false);
+        processor.stubPage("https://example.com/a", List.of("https://example.com/b"), false);
+        processor.stubPage("https://example.com/b", List.of(), false);
+
+        config.setExecutorMode(CrawlerConfig.ExecutorMode.VIRTUAL_THREADS);
+        crawler = new WebCrawler(config, processor);
+        List<CrawledPage> result = crawler.crawl();
+
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    void limitsConcurrentFetchesToMaxInFlight() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        FakePageProcessor slowProcessor = new FakePageProcessor(url -> null) {
+            @Override
+            public CrawledPage processPage(String url, int depth) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return super.processPage(url, depth);
+            }
+        };
+        List<String> children = List.of("https://example.com/1", "https://example.com/2", "https://example.com/3",
+                "https://example.com/4", "https://example.com/5", "https://example.com/6");
+        slowProcessor.stubPage("https://example.com", children, false);
+        children.forEach(child -> slowProcessor.stubPage(child, List.of(), false));
+
+        config.setThreadPoolSize(8);
+        config.setMaxInFlightRequests(2);
+        crawler = new WebCrawler(config, slowProcessor);
+        List<CrawledPage> result = crawler.crawl();
+
+        assertEquals(7, result.size());
+        assertTrue(maxRunning.get() <= 2, "At most two fetches should run at once but saw " + maxRunning.get());
+    }
+
+    @Test
+    void stopsAtPageBudgetAndReturnsPartialResults() {
+        // Arrange
+        List<String> children = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            children.add("https://example.com/" + i);
+            processor.stubPage("https://example.com/" + i, List.of(), false);
+        }
+        processor.stubPage("https://example.com", children, false);
+        config.setMaxPages(4);
+        crawler = new WebCrawler(config, processor);
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        assertEquals(4, result.size());
+        assertEquals(4, processor.processedUrls.size());
+        assertTrue(crawler.isStoppedEarly());
+    }
+
+    @Test
+    void lowersDepthAndExpandsChildrenWhenShorterPathIsFoundLater() {
+        // Arrange
+        config = new CrawlerConfig(config.getStartUrls(), 3, Set.of("https://example.com"));
+        config.setRequestsPerSecondPerHost(0);
+        crawler = new WebCrawler(config, shortPathFoundLaterProcessor());
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        Map<String, Integer> depths = depthsByUrl(result);
+        assertEquals(2, depths.get("https://example.com/shared"));
+        assertEquals(3, depths.get("https://example.com/child"), "child is at depth 4 on the long path, past the limit, and only reachable through the short one");
+        assertEquals(1, crawler.getDepthCorrections());
+        assertEquals(6, result.size());
+    }
+
+    @Test
+    void readsSpilledLinksBackWhenShorterPathIsFoundLater(@TempDir Path directory) throws Exception {
+        // Arrange
+        config = new CrawlerConfig(config.getStartUrls(), 3, Set.of("https://example.com"));
+        config.setRequestsPerSecondPerHost(0);
+        crawler = new WebCrawler(config, shortPathFoundLaterProcessor());
+
+        // Act
+        List<CrawledPage> result;
+        try (StreamingReportWriter spill = new StreamingReportWriter(directory.resolve("crawl.spill"))) {
+            crawler.setPageSpill(spill);
+            result = crawler.crawl();
+        }
+
+        // Assert
+        Map<String, Integer> depths = depthsByUrl(result);
+        assertEquals(2, depths.get("https://example.com/shared"));
+        assertEquals(3, depths.get("https://example.com/child"), "the shared page's links were spilled before its depth was lowered");
+        assertEquals(6, result.size());
+        assertTrue(result.stream().allMatch(p -> p.getLinks().isEmpty()));
+    }
+
+    @Test
+    void marksCopiesOfAPageAsDuplicatesAndDoesNotFollowTheirLinks() {
+        // Arrange
+        Map<String, crawler.model.PageContent> contents = Map.of(
+                "https://example.com", new crawler.model.PageContent(List.of("Home"),
+                        List.of("https://example.com/docs", "https://example.com/docs/index.html")),
+                "https://example.com/docs", new crawler.model.PageContent(List.of("Docs"),
+                        List.of("https://example.com/intro?sessionid=1")),
+                "https://example.com/docs/index.html", new crawler.model.PageContent(List.of("Docs"),
+                        List.of("https://example.com/intro?sessionid=2")),
+                "https://example.com/intro?sessionid=1", new crawler.model.PageContent(List.of("Intro"), List.of()));
+        HtmlFetcher fetcher = new HtmlFetcher() {
+            @Override
+            public Document fetchDocumentFromUrl(String url) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public crawler.model.PageContent fetchContentFromUrl(String url) {
+                return contents.get(url);
+            }
+        };
+        // One task at a time, so /docs is always fetched before its copy
+        config.setMaxInFlightRequests(1);
+        config.setContentDedup(CrawlerConfig.ContentDedup.EXACT);
+        crawler = new WebCrawler(config, new PageProcessor(fetcher));
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        CrawledPage copy = result.stream()
+                .filter(page -> page.getUrl().equals("https://example.com/docs/index.html")).findFirst().orElseThrow();
+        assertEquals("https://example.com/docs", copy.getDuplicateOf());
+        assertEquals(1, crawler.getDuplicateContentPages());
+        assertEquals(4, result.size());
+    }
+
+    @Test
+    void siblingPagesSharingTheNavigationAreNotNearDuplicates() {
+        // Arrange
+        List<String> navigation = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            navigation.add("https://example.com/section/" + i);
+        }
+        Map<String, crawler.model.PageContent> contents = new HashMap<>();
+        contents.put("https://example.com", new crawler.model.PageContent(List.of("Home"),
+                withLinks(navigation, "https://example.com/products/1", "https://example.com/products/2")));
+        contents.put("https://example.com/products/1", new crawler.model.PageContent(List.of("Product details"),
+                withLinks(navigation, "https://example.com/reviews/1")));
+        contents.put("https://example.com/products/2", new crawler.model.PageContent(List.of("Product details"),
+                withLinks(navigation, "https://example.com/reviews/2")));
+        contents.put("https://example.com/reviews/2", new crawler.model.PageContent(List.of("Reviews"),
+                List.of("https://example.com/products/2?view=print")));
+        contents.put("https://example.com/products/2?view=print", new crawler.model.PageContent(List.of("Product details"),
+                List.of("https://example.com/reviews/2")));
+        HtmlFetcher fetcher = new HtmlFetcher() {
+            @Override
+            public Document fetchDocumentFromUrl(String url) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public crawler.model.PageContent fetchContentFromUrl(String url) {
+                return contents.getOrDefault(url, new crawler.model.PageContent(List.of(), List.of()));
+            }
+        };
+        config = new CrawlerConfig(config.getStartUrls(), 3, Set.of("https://example.com"));
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxInFlightRequests(1);
+        config.setContentDedup(CrawlerConfig.ContentDedup.NEAR);
+        crawler = new WebCrawler(config, new PageProcessor(fetcher));
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        Map<String, String> duplicates = new HashMap<>();
+        for (CrawledPage page : result) {
+            if (page.getDuplicateOf() != null) duplicates.put(page.getUrl(), page.getDuplicateOf());
+        }
+        assertEquals(Map.of("https://example.com/products/2?view=print", "https://example.com/products/2"), duplicates);
+    }
+
+    @Test
+    void doesNotFingerprintPagesWhenContentDedupIsOff() {
+        // Arrange
+        processor.stubPage("https://example.com", List.of("https://example.com/page"), false);
+        processor.stubPage("https://example.com/page", List.of(), false);
+        crawler = new WebCrawler(config, processor);
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(page -> page.getContentHash() == 0 && page.getSimHash() == 0));
+    }
+
+    @Test
+    void treatsQueryVariantsAsPagesButIgnoresTrackingParams() {
+        // Arrange
+        processor.stubPage("https://example.com", List.of("https://example.com/list?page=1",
+                "https://example.com/list?page=2", "https://example.com/list?utm_source=mail&page=1"), false);
+        processor.stubPage("https://example.com/list?page=1", List.of(), false);
+        processor.stubPage("https://example.com/list?page=2", List.of(), false);
+        // One task at a time, so the plain link claims the page before its tracking variant
+        config.setMaxInFlightRequests(1);
+        crawler = new WebCrawler(config, processor);
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        assertEquals(Set.of("https://example.com", "https://example.com/list?page=1", "https://example.com/list?page=2"),
+                processor.processedUrls);
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    void keepsItsOwnUrlRulesWhenAnotherCrawlerIsCreated() {
+        // Arrange
+        processor.stubPage("https://example.com", List.of("https://example.com/list?page=1",
+                "https://example.com/list?page=2"), false);
+        processor.stubPage("https://example.com/list?page=1", List.of(), false);
+        processor.stubPage("https://example.com/list?page=2", List.of(), false);
+        config.addUrlRule("example.com:drop-query");
+        crawler = new WebCrawler(config, processor);
+        CrawlerConfig defaultRules = new CrawlerConfig(config.getStartUrls(), 1, Set.of("https://example.com"));
+        new WebCrawler(defaultRules, new FakePageProcessor(url -> null));
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(2, processor.processedUrls.size());
+    }
+
+    @Test
+    void pageBudgetGoesToHighestWeightedPagesFirst() {
+        // Arrange
+        List<String> children = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            children.add("https://example.com/" + i);
+            processor.stubPage("https://example.com/" + i, List.of(), false);
+        }
+        children.add("https://example.com/docs/a");
+        children.add("https://example.com/docs/b");
+        processor.stubPage("https://example.com", children, false);
+        // One task at a time, so nothing is dispatched before the start page has enqueued all its links
+        config.setMaxInFlightRequests(1);
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxPages(3);
+        config.addUrlPatternWeight("/docs/", 10);
+        crawler = new WebCrawler(config, processor);
+
+        // Act
+        crawler.crawl();
+
+        // Assert
+        assertEquals(Set.of("https://example.com", "https://example.com/docs/a", "https://example.com/docs/b"),
+                processor.processedUrls);
+    }
+
+    @Test
+    void stopsAtTimeLimitAndReturnsPartialResults() {
+        // Arrange
+        FakePageProcessor slowProcessor = new FakePageProcessor(url -> null) {
+            @Override
+            public CrawledPage processPage(String url, int depth) {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.processPage(url, depth);
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            slowProcessor.stubPage("https://example.com/" + i, List.of("https://example.com/" + (i + 1)), false);
+        }
+        slowProcessor.stubPage("https://example.com", List.of("https://example.com/0"), false);
+        config = new CrawlerConfig(config.getStartUrls(), 30, Set.of("https://example.com"));
+        config.setTimeLimitSeconds(1);
+        crawler = new WebCrawler(config, slowProcessor);
+        long start = System.nanoTime();
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(crawler.isStoppedEarly());
+        assertFalse(result.isEmpty());
+        assertTrue(result.size() < 10, "the chain takes over 6s, but " + result.size() + " pages were crawled");
+        assertTrue(elapsedMillis < 3000, "crawl took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void doesNotStopEarlyWithoutLimits() {
+        processor.stubPage("https://example.com", List.of(), false);
+
+        crawler.crawl();
+
+        assertFalse(crawler.isStoppedEarly());
+    }
+
+    @Test
+    void attributesSharedPagesToEveryStartUrl() throws MalformedURLException {
+        URL first = new URL("https://example.com");
+        URL second = new URL("https://example.com/second");
+        processor.stubPage("https://example.com", List.of("https://example.com/shared"), false);
+        processor.stubPage("https://example.com/second", List.of("https://example.com/shared"), false);
+        processor.stubPage("https://example.com/shared", List.of(), false);
+
+        config = new CrawlerConfig(List.of(first, second), 2, Set.of("https://example.com"));
+        crawler = new WebCrawler(config, processor);
+        List<CrawledPage> result = crawler.crawl();
+
+        CrawledPage shared = result.stream().filter(p -> p.getUrl().endsWith("/shared")).findFirst().orElseThrow();
+        assertEquals(3, result.size());
+        assertEquals(Set.of(first, second), shared.getFromStartUrls());
+    }
+
+    @Test
+    void spillsFinishedPagesAndReleasesTheirContent() {
+        processor.stubPage("https://example.com", List.of("https://example.com/page"), false);
+        processor.stubPage("https://example.com/page", List.of(), false);
+        List<String> spilledLinks = Collections.synchronizedList(new ArrayList<>());
+
+        crawler.setPageSpill(page -> spilledLinks.addAll(page.getLinks()));
+        List<CrawledPage> result = crawler.crawl();
+
+        assertEquals(2, result.size());
+        assertEquals(List.of("https://example.com/page"), spilledLinks);
+        assertTrue(result.stream().allMatch(p -> p.getLinks().isEmpty() && p.getHeadings().isEmpty()));
+    }
+
+    @Test
+    void crawlsWithFingerprintVisitedSet() {
+        processor.stubPage("https://example.com", List.of("https://example.com/page"), false);
+        processor.stubPage("https://example.com/page", List.of("https://example.com"), false);
+
+        config.setVisitedSetType(CrawlerConfig.VisitedSetType.FINGERPRINT);
+        config.setExpectedUrlCount(16);
+        crawler = new WebCrawler(config, processor);
+        List<CrawledPage> result = crawler.crawl();
+
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void bloomFilterSkipsLookupsForNewLinks() {
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com/b"), false);
+        processor.stubPage("https://example.com/a", List.of("https://example.com", "https://example.com/b"), false);
+        processor.stubPage("https://example.com/b", List.of("https://example.com"), false);
+
+        config.setBloomFilterEnabled(true);
+        config.setExpectedUrlCount(1_000);
+        crawler = new WebCrawler(config, processor);
+        List<CrawledPage> result = crawler.crawl();
+
+        assertEquals(3, result.size());
+        BloomFilteredVisitedSet visited = (BloomFilteredVisitedSet) crawler.getVisitedPages();
+        assertTrue(visited.getLookupsSaved() > 0);
+    }
+
+    @Test
+    void fetchesEachUrlExactlyOnceUnderHighConcurrency() {
+        Map<String, AtomicInteger> fetchCounts = new ConcurrentHashMap<>();
+        FakePageProcessor countingProcessor = new FakePageProcessor(url -> null) {
+            @Override
+            public CrawledPage processPage(String url, int depth) {
+                fetchCounts.computeIfAbsent(url, u -> new AtomicInteger()).incrementAndGet();
+                return super.processPage(url, depth);
+            }
+        };
+        // Every page links to every shared page, so all 64 workers race for the same URLs
+        List<String> sharedPages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sharedPages.add("https://example.com/shared" + i);
+        }
+        countingProcessor.stubPage("https://example.com", sharedPages, false);
+        sharedPages.forEach(page -> countingProcessor.stubPage(page, sharedPages, false));
+
+        config.setThreadPoolSize(64);
+        config.setRequestsPerSecondPerHost(0);
+        config.setMaxConnectionsPerHost(64);
+        crawler = new WebCrawler(config, countingProcessor);
+        List<CrawledPage> result = crawler.crawl();
+
+        assertEquals(101, result.size());
+        assertEquals(101, fetchCounts.size());
+        fetchCounts.forEach((url, count) -> assertEquals(1, count.get(), url + " was fetched more than once"));
+        assertTrue(crawler.getDuplicateClaimAttempts() > 0);
+    }
+
+    @Test
+    void crawlsWithAsyncFetcher() throws Exception {
+        // Arrange
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.equals("/missing")) return new MockResponse().setResponseCode(404);
+                StringBuilder body = new StringBuilder("<html><body><h1>" + path + "</h1>");
+                for (int i = 0; i < 5; i++) {
+                    body.append("<a href=\"").append(path.equals("/") ? "" : path).append("/").append(i).append("\">x</a>");
+                }
+                return new MockResponse().setBody(body.append("<a href=\"/missing\">m</a></body></html>").toString())
+                        .setHeadersDelay(20, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        try {
+            CrawlerConfig asyncConfig = new CrawlerConfig(List.of(server.url("/").url()), 2, Set.of("http://" + server.getHostName()));
+            asyncConfig.setThreadPoolSize(2);
+            asyncConfig.setRequestsPerSecondPerHost(0);
+            asyncConfig.setMaxConnectionsPerHost(100);
+            asyncConfig.setAsyncFetch(true);
+            WebCrawler asyncCrawler = new WebCrawler(asyncConfig,
+                    new PageProcessor(new HttpClientHtmlFetcher(5000, CrawlerConfig.ParserMode.DOM)));
+
+            // Act
+            List<CrawledPage> result = asyncCrawler.crawl();
+
+            // Assert
+            assertEquals(1 + 5 + 25 + 1, result.size());
+            assertEquals(1, result.stream().filter(CrawledPage::isBroken).count());
+            assertEquals(result.size(), server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void incrementalCrawlSkipsExpandingUnchangedPages() {
+        // Arrange
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com/b"), false);
+        processor.stubPage("https://example.com/a", List.of("https://example.com/a/1"), false);
+        processor.stubPage("https://example.com/b", List.of(), false);
+        processor.stubPage("https://example.com/a/1", List.of(), false);
+        List<CrawledPage> previous = copyOf(crawler.crawl());
+        WebCrawler incremental = new WebCrawler(config, processor);
+        incremental.setPreviousCrawl(previous);
+
+        // Act
+        List<CrawledPage> result = incremental.crawl();
+
+        // Assert
+        assertEquals(4, result.size());
+        assertEquals(4, incremental.getUnchangedPages());
+        assertEquals(depthsByUrl(previous), depthsByUrl(result));
+    }
+
+    @Test
+    void incrementalCrawlFollowsChangedLinksAndDropsUnreachablePages() {
+        // Arrange
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com/old"), false);
+        processor.stubPage("https://example.com/a", List.of(), false);
+        processor.stubPage("https://example.com/old", List.of(), false);
+        List<CrawledPage> previous = copyOf(crawler.crawl());
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com/new"), false);
+        processor.stubPage("https://example.com/new", List.of("https://example.com/new/child"), false);
+        processor.stubPage("https://example.com/new/child", List.of(), false);
+        WebCrawler incremental = new WebCrawler(config, processor);
+        incremental.setPreviousCrawl(previous);
+
+        // Act
+        List<CrawledPage> result = incremental.crawl();
+
+        // Assert
+        assertEquals(Map.of("https://example.com", 0, "https://example.com/a", 1,
+                "https://example.com/new", 1, "https://example.com/new/child", 2), depthsByUrl(result));
+    }
+
+    @Test
+    void incrementalCrawlExpandsUnchangedPagesThatMovedCloserToTheStart() {
+        // Arrange
+        processor.stubPage("https://example.com", List.of("https://example.com/a"), false);
+        processor.stubPage("https://example.com/a", List.of("https://example.com/deep"), false);
+        processor.stubPage("https://example.com/deep", List.of("https://example.com/deeper"), false);
+        processor.stubPage("https://example.com/deeper", List.of(), false);
+        List<CrawledPage> previous = copyOf(crawler.crawl());
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com/deep"), false);
+        WebCrawler incremental = new WebCrawler(config, processor);
+        incremental.setPreviousCrawl(previous);
+
+        // Act
+        List<CrawledPage> result = incremental.crawl();
+
+        // Assert
+        assertEquals(3, previous.size());
+        assertEquals(Map.of("https://example.com", 0, "https://example.com/a", 1,
+                "https://example.com/deep", 1, "https://example.com/deeper", 2), depthsByUrl(result));
+    }
+
+    @Test
+    void crawlsEverythingWhenFrontierSpillsToDisk() {
+        // Arrange
+        config.setFrontierMemoryLimit(1);
+        List<String> links = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            links.add("https://example.com/page-" + i);
+            processor.stubPage("https://example.com/page-" + i, List.of("https://example.com"), false);
+        }
+        processor.stubPage("https://example.com", links, false);
+        WebCrawler spilling = new WebCrawler(config, processor);
+
+        // Act
+        List<CrawledPage> result = spilling.crawl();
+
+        // Assert
+        assertEquals(21, result.size());
+        assertTrue(result.stream().noneMatch(CrawledPage::isBroken));
+    }
+
+    @Test
+    void resumesFromCheckpointWithoutRefetchingFinishedPages(@TempDir Path directory) throws Exception {
+        // Arrange
+        URL root = new URL("https://example.com");
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com/b"), false);
+        processor.stubPage("https://example.com/a", List.of("https://example.com/a/1"), false);
+        processor.stubPage("https://example.com/b", List.of(), false);
+        processor.stubPage("https://example.com/a/1", List.of(), false);
+        CrawledPage finished = new CrawledPage("https://example.com", 0, List.of("Home"),
+                List.of("https://example.com/a", "https://example.com/b"), false);
+        finished.getFromStartUrls().add(root);
+        Path file = directory.resolve("crawl.checkpoint");
+        // What a crawl that died after its first page leaves behind
+        try (CheckpointLog log = CheckpointLog.create(file, config, 1000)) {
+            log.taskEnqueued(new CrawlTask("https://example.com", 0, root));
+            log.taskEnqueued(new CrawlTask("https://example.com/a", 1, root));
+            log.taskEnqueued(new CrawlTask("https://example.com/b", 1, root));
+            log.pageFinished(finished);
+        }
+        crawler.resumeFrom(CheckpointLog.recover(file, config));
+
+        // Act
+        List<CrawledPage> result;
+        try (CheckpointLog log = CheckpointLog.append(file, config, CheckpointLog.recover(file, config), 1000)) {
+            crawler.setCheckpoint(log);
+            result = crawler.crawl();
+        }
+
+        // Assert
+        assertEquals(Map.of("https://example.com", 0, "https://example.com/a", 1,
+                "https://example.com/b", 1, "https://example.com/a/1", 2), depthsByUrl(result));
+        assertFalse(processor.processedUrls.contains("https://example.com"));
+        assertEquals(4, CheckpointLog.recover(file, config).getPages().size());
+    }
+
+    @Test
+    void resumedPagesCountAgainstThePageBudget(@TempDir Path directory) throws Exception {
+        // Arrange
+        URL root = new URL("https://example.com");
+        processor.stubPage("https://example.com", List.of("https://example.com/a", "https://example.com/b",
+                "https://example.com/c"), false);
+        processor.stubPage("https://example.com/a", List.of("https://example.com/a/1"), false);
+        processor.stubPage("https://example.com/b", List.of(), false);
+        processor.stubPage("https://example.com/c", List.of(), false);
+        processor.stubPage("https://example.com/a/1", List.of(), false);
+        CrawledPage home = new CrawledPage("https://example.com", 0, List.of("Home"),
+                List.of("https://example.com/a", "https://example.com/b", "https://example.com/c"), false);
+        home.getFromStartUrls().add(root);
+        CrawledPage a = new CrawledPage("https://example.com/a", 1, List.of("A"),
+                List.of("https://example.com/a/1"), false);
+        a.getFromStartUrls().add(root);
+        Path file = directory.resolve("crawl.checkpoint");
+        // A crawl with a budget of 3 that died after its second page
+        try (CheckpointLog log = CheckpointLog.create(file, config, 1000)) {
+            log.pageFinished(home);
+            log.pageFinished(a);
+        }
+        config.setMaxPages(3);
+        crawler = new WebCrawler(config, processor);
+        crawler.resumeFrom(CheckpointLog.recover(file, config));
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals(1, processor.processedUrls.size());
+        assertTrue(crawler.isStoppedEarly());
+    }
+
+    @Test
+    void resumeStopsRightAwayWhenThePageBudgetIsUsedUp(@TempDir Path directory) throws Exception {
+        // Arrange
+        URL root = new URL("https://example.com");
+        processor.stubPage("https://example.com/a", List.of(), false);
+        CrawledPage home = new CrawledPage("https://example.com", 0, List.of("Home"),
+                List.of("https://example.com/a"), false);
+        home.getFromStartUrls().add(root);
+        Path file = directory.resolve("crawl.checkpoint");
+        try (CheckpointLog log = CheckpointLog.create(file, config, 1000)) {
+            log.pageFinished(home);
+        }
+        config.setMaxPages(1);
+        crawler = new WebCrawler(config, processor);
+        crawler.resumeFrom(CheckpointLog.recover(file, config));
+
+        // Act
+        List<CrawledPage> result = crawler.crawl();
+
+        // Assert
+        assertEquals(List.of("https://example.com"), result.stream().map(CrawledPage::getUrl).toList());
+        assertTrue(processor.processedUrls.isEmpty());
+        assertTrue(crawler.isStoppedEarly());
+    }
+
+    private static List<CrawledPage> copyOf(List<CrawledPage> pages) {
+        List<CrawledPage> copies = new ArrayList<>();
+        for (CrawledPage page : pages) {
+            CrawledPage copy = new CrawledPage(page.getUrl(), page.getDepth(), page.getHeadings(),
+                    new ArrayList<>(page.getLinks()), page.isBroken());
+            copy.getFromStartUrls().addAll(page.getFromStartUrls());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * Site where /shared is first reached at depth 3 over /long and only then at depth 2 over /short, whose fetch
+     * waits until /shared is crawled.
+     */
+    private static FakePageProcessor shortPathFoundLaterProcessor() {
+        CountDownLatch deepPathCrawled = new CountDownLatch(1);
+        FakePageProcessor slowProcessor = new FakePageProcessor(url -> null) {
+            @Override
+            public CrawledPage processPage(String url, int depth) {
+                if (url.equals("https://example.com/short")) {
+                    try {
+                        // Let the long path claim the shared page first
+                        deepPathCrawled.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                CrawledPage page = super.processPage(url, depth);
+                if (url.equals("https://example.com/shared")) {
+                    deepPathCrawled.countDown();
+                }
+                return page;
+            }
+        };
+        slowProcessor.stubPage("https://example.com", List.of("https://example.com/long", "https://example.com/short"), false);
+        slowProcessor.stubPage("https://example.com/long", List.of("https://example.com/long/2"), false);
+        slowProcessor.stubPage("https://example.com/long/2", List.of("https://example.com/shared"), false);
+        slowProcessor.stubPage("https://example.com/short", List.of("https://example.com/shared"), false);
+        slowProcessor.stubPage("https://example.com/shared", List.of("https://example.com/child"), false);
+        slowProcessor.stubPage("https://example.com/child", List.of(), false);
+        return slowProcessor;
+    }
+
+    private static List<String> withLinks(List<String> navigation, String... ownLinks) {
+        List<String> links = new ArrayList<>(navigation);
+        links.addAll(List.of(ownLinks));
+        return links;
+    }
+
+    private static Map<String, Integer> depthsByUrl(List<CrawledPage> pages) {
+        Map<String, Integer> depths = new java.util.HashMap<>();
+        for (CrawledPage page : pages) {
+            depths.put(page.getUrl(), page.getDepth());
+        }
+        return depths;
+    }
+
     // -------------- Fake Page Processor --------------
     static class FakePageProcessor extends PageProcessor {
         private final java.util.Map<String, CrawledPage> stubbedPages = new java.util.HashMap<>();
+        private final Set<String> processedUrls = ConcurrentHashMap.newKeySet();
 
         public FakePageProcessor(HtmlFetcher fetcher) {
             super(fetcher);
@@ -107,6 +854,7 @@ class WebCrawlerTest {
 
         @Override
         public CrawledPage processPage(String url, int depth) {
+            processedUrls.add(url);
             CrawledPage page = stubbedPages.getOrDefault(url, new CrawledPage());
             page.setDepth(depth);
             return page;
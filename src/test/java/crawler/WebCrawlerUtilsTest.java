@@ -82,4 +82,22 @@ class WebCrawlerUtilsTest {
         // Assert
         assertFalse(result);
     }
+
+    @Test
+    void extractHost_returnsLowercaseHost() {
+        // Act
+        String host = WebCrawlerUtils.extractHost("https://Example.ORG:8080/news");
+
+        // Assert
+        assertEquals("example.org", host);
+    }
+
+    @Test
+    void extractHost_returnsEmptyStringForMalformedUrl() {
+        // Act
+        String host = WebCrawlerUtils.extractHost("ht!tp:/nope");
+
+        // Assert
+        assertEquals("", host);
+    }
 }